@@ -0,0 +1,186 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A thread-safe version of {@link ObjectGroup}, for groups that are read much more often than they are changed
+ * </p>
+ * <p>
+ *     The objects are kept in an array that is never modified once published. Readers get it with a single volatile
+ *     read, without taking any lock, and can iterate it while other threads change the group. Writers copy the array,
+ *     change the copy and publish it, one at a time. Several changes can be made with a single copy using
+ *     {@link ConcurrentObjectGroup#update(Consumer)}
+ * </p>
+ * <p>
+ *     Only the methods changing or reading the group are mirrored from {@link ObjectGroup}. The parallel bulk
+ *     operations of {@link ObjectGroup}, like {@code map}, {@code filter}, {@code reduce} or {@code partition}, are
+ *     run on a snapshot of the group taken with {@link ConcurrentObjectGroup#toObjectGroup()}
+ * </p>
+ * @param <T> The type of the elements contained in the {@link ConcurrentObjectGroup}
+ */
+@SuppressWarnings("unused")
+public class ConcurrentObjectGroup<T> implements Iterable<T> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Object lock = new Object();
+    private volatile Object[] objects = EMPTY;
+
+    /**
+     * A constructor creating an empty {@link ConcurrentObjectGroup}
+     */
+    public ConcurrentObjectGroup() {}
+
+    @SafeVarargs
+    public ConcurrentObjectGroup(T... elements) {
+        // Copied to an Object[], as the varargs array may be of a subtype of T and refuse the objects added later
+        Object[] objects = new Object[elements.length];
+        for (int i = 0; i < elements.length; i++) objects[i] = elements[i];
+        this.objects = objects;
+    }
+
+    public ConcurrentObjectGroup(@NotNull Collection<? extends T> elements) {this.objects = elements.toArray();}
+
+    public int size() {return this.objects.length;}
+
+    public boolean add(@NotNull T element) {
+        synchronized (this.lock) {
+            Object[] current = this.objects;
+            Object[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = element;
+            this.objects = updated;
+            return true;
+        }
+    }
+
+    public boolean add(@NotNull ObjectGroup<? extends T> otherGroup) {return this.addAll(otherGroup.getObjects());}
+
+    public boolean addAll(@NotNull Collection<? extends T> collection) {
+        Object[] added = collection.toArray();
+        if (added.length == 0) return false;
+        synchronized (this.lock) {
+            Object[] current = this.objects;
+            Object[] updated = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, updated, current.length, added.length);
+            this.objects = updated;
+            return true;
+        }
+    }
+
+    public boolean remove(T element) {
+        synchronized (this.lock) {
+            Object[] current = this.objects;
+            int index = indexOf(current, element);
+            if (index < 0) return false;
+            this.objects = without(current, index);
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        synchronized (this.lock) {
+            Object[] current = this.objects;
+            if (index < 0 || index >= current.length) throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of bounds for size " + current.length + "!"
+            );
+            this.objects = without(current, index);
+            return (T) current[index];
+        }
+    }
+
+    public boolean remove(@NotNull ObjectGroup<? extends T> otherGroup) {return this.removeAll(otherGroup.getObjects());}
+
+    /**
+     * Removes one occurrence of each object of the collection, in a single pass publishing a single new version
+     */
+    public boolean removeAll(@NotNull Collection<? extends T> collection) {
+        if (collection.isEmpty()) return false;
+        HashMap<Object, int[]> removals = new HashMap<>();
+        for (T t : collection) removals.computeIfAbsent(t, key -> new int[1])[0]++;
+        synchronized (this.lock) {
+            Object[] current = this.objects;
+            Object[] updated = new Object[current.length];
+            int kept = 0;
+            for (Object object : current) {
+                int[] remaining = removals.isEmpty() ? null : removals.get(object);
+                if (remaining == null) updated[kept++] = object;
+                else if (--remaining[0] == 0) removals.remove(object);
+            }
+            if (kept == current.length) return false;
+            this.objects = Arrays.copyOf(updated, kept);
+            return true;
+        }
+    }
+
+    public void clear() {
+        synchronized (this.lock) {
+            this.objects = EMPTY;
+        }
+    }
+
+    public boolean contains(T element) {return indexOf(this.objects, element) >= 0;}
+
+    /**
+     * <p>
+     *     Applies several changes to the group with a single copy of its objects
+     * </p>
+     * <p>
+     *     The mutation receives a private copy of the objects, and the group is replaced with its content once it
+     *     returns. Other writers wait for it, and readers keep seeing the previous version until then
+     * </p>
+     * @param mutation The changes to make to the objects
+     */
+    @SuppressWarnings("unchecked")
+    public void update(@NotNull Consumer<? super ArrayList<T>> mutation) {
+        synchronized (this.lock) {
+            ArrayList<T> copy = new ArrayList<>((List<T>) Arrays.asList(this.objects));
+            mutation.accept(copy);
+            this.objects = copy.toArray();
+        }
+    }
+
+    /**
+     * Returns the current version of the group, without copying it
+     * <p> The returned list can't be modified, and doesn't see the changes made to the group afterwards </p>
+     * @return An immutable list of the objects of the group
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<T> snapshot() {return Collections.unmodifiableList((List<T>) Arrays.asList(this.objects));}
+
+    /**
+     * Copies the current objects of the group, for example to run the bulk operations of {@link ObjectGroup} on them
+     * while other threads keep changing the group
+     * @return An {@link ObjectGroup} containing a copy of the current objects of the group
+     */
+    public @NotNull ObjectGroup<T> toObjectGroup() {return new ObjectGroup<>(this.snapshot());}
+
+    /**
+     * @return An iterator over the current version of the group, which doesn't see the changes made afterwards
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {return this.snapshot().iterator();}
+
+    private static int indexOf(Object @NotNull [] objects, Object element) {
+        for (int i = 0; i < objects.length; i++) {
+            if (element == null ? objects[i] == null : element.equals(objects[i])) return i;
+        }
+        return -1;
+    }
+
+    private static Object @NotNull [] without(Object @NotNull [] objects, int index) {
+        Object[] updated = new Object[objects.length - 1];
+        System.arraycopy(objects, 0, updated, 0, index);
+        System.arraycopy(objects, index + 1, updated, index, objects.length - index - 1);
+        return updated;
+    }
+}
@@ -0,0 +1,290 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     A thread-safe, bounded version of {@link Queue}, which any number of threads can queue to and unqueue from
+ * </p>
+ * <p>
+ *     The objects are stored in a circular array where each slot has a sequence number telling whether it is ready
+ *     to be written or read. Threads claim slots by incrementing the positions of the head and the tail with a single
+ *     compare-and-set, so no lock is ever taken. The positions are padded to be on their own cache lines
+ * </p>
+ * <p>
+ *     {@link ConcurrentQueue#offer(Object)} and {@link ConcurrentQueue#poll()} never block.
+ *     {@link ConcurrentQueue#queue(Object)} and {@link ConcurrentQueue#unqueue()} wait with
+ *     {@link LockSupport#park(Object)} until they can proceed, without holding any monitor
+ * </p>
+ * @param <T> The type of the elements contained in the {@link ConcurrentQueue}
+ */
+public class ConcurrentQueue<T> {
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle OBJECTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    // The number of times a blocking method retries before parking
+    private static final int SPINS = 64;
+
+    private final Object[] objects;
+    private final long[] sequences;
+    private final int mask;
+    private final PaddedPosition tail = new PaddedPosition();
+    private final PaddedPosition head = new PaddedPosition();
+    private final ConcurrentLinkedQueue<Waiter> notEmptyWaiters = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Waiter> notFullWaiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A constructor creating an empty {@link ConcurrentQueue}
+     * @param capacity The maximum number of objects of the {@link ConcurrentQueue}, rounded up to a power of two
+     */
+    public ConcurrentQueue(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive!");
+        if (capacity > 1 << 30) throw new IllegalArgumentException("The capacity can't be greater than 2^30!");
+        int rounded = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.objects = new Object[rounded];
+        this.sequences = new long[rounded];
+        this.mask = rounded - 1;
+        for (int i = 0; i < rounded; i++) this.sequences[i] = i;
+    }
+
+    /**
+     * Adds an object at the end of the {@link ConcurrentQueue} if there is room for it
+     * @param object The object to add to the {@link ConcurrentQueue}
+     * @return {@code true} if the object was added, {@code false} if the {@link ConcurrentQueue} is full
+     */
+    public boolean offer(@NotNull T object) {
+        if (object == null) throw new NullPointerException("Can't queue null in a concurrent queue!");
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = (long) SEQUENCES.getVolatile(sequences, index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    OBJECTS.set(objects, index, object);
+                    SEQUENCES.setVolatile(sequences, index, position + 1);
+                    signal(notEmptyWaiters);
+                    return true;
+                }
+                position = tail.get();
+            }
+            else if (difference < 0) return false;
+            else position = tail.get();
+        }
+    }
+
+    /**
+     * Removes the first inserted object from the {@link ConcurrentQueue} if there is one
+     * @return The removed object, or {@code null} if the {@link ConcurrentQueue} is empty
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = (long) SEQUENCES.getVolatile(sequences, index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T object = (T) OBJECTS.get(objects, index);
+                    OBJECTS.set(objects, index, null);
+                    SEQUENCES.setVolatile(sequences, index, position + mask + 1);
+                    signal(notFullWaiters);
+                    return object;
+                }
+                position = head.get();
+            }
+            else if (difference < 0) return null;
+            else position = head.get();
+        }
+    }
+
+    /**
+     * Adds an object at the end of the {@link ConcurrentQueue}, waiting for room if it is full
+     * @param object The object to add to the {@link ConcurrentQueue}
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public void queue(@NotNull T object) throws InterruptedException {offer(object, false, 0);}
+
+    /**
+     * Removes the first inserted object from the {@link ConcurrentQueue}, waiting for one if it is empty
+     * @return The removed object
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public @NotNull T unqueue() throws InterruptedException {return poll(false, 0);}
+
+    /**
+     * Adds an object at the end of the {@link ConcurrentQueue}, waiting at most the given time for room if it is full
+     * @param object The object to add to the {@link ConcurrentQueue}
+     * @param timeout The maximum time to wait
+     * @param unit The {@link TimeUnit} of the timeout
+     * @return {@code true} if the object was added, {@code false} if the time ran out
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public boolean offer(@NotNull T object, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return offer(object, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Removes the first inserted object from the {@link ConcurrentQueue}, waiting at most the given time for one if
+     * it is empty
+     * @param timeout The maximum time to wait
+     * @param unit The {@link TimeUnit} of the timeout
+     * @return The removed object, or {@code null} if the time ran out
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public @Nullable T poll(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return poll(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Adds an object, waiting until the deadline if the wait is timed, or for as long as needed otherwise
+     * @return {@code true} if the object was added, which is always the case if the wait isn't timed
+     */
+    private boolean offer(@NotNull T object, boolean timed, long deadline) throws InterruptedException {
+        if (offer(object)) return true;
+        for (int i = 0; i < SPINS; i++) {
+            Thread.onSpinWait();
+            if (offer(object)) return true;
+        }
+        Waiter waiter = new Waiter();
+        try {
+            while (true) {
+                notFullWaiters.add(waiter);
+                if (offer(object)) return true;
+                if (!await(waiter, timed, deadline)) return false;
+            }
+        } finally {
+            leave(waiter, notFullWaiters);
+        }
+    }
+
+    /**
+     * Removes the first object, waiting until the deadline if the wait is timed, or for as long as needed otherwise
+     * @return The removed object, or {@code null} if the time ran out, which never happens if the wait isn't timed
+     */
+    private @Nullable T poll(boolean timed, long deadline) throws InterruptedException {
+        T object = poll();
+        if (object != null) return object;
+        for (int i = 0; i < SPINS; i++) {
+            Thread.onSpinWait();
+            if ((object = poll()) != null) return object;
+        }
+        Waiter waiter = new Waiter();
+        try {
+            while (true) {
+                notEmptyWaiters.add(waiter);
+                if ((object = poll()) != null) return object;
+                if (!await(waiter, timed, deadline)) return null;
+            }
+        } finally {
+            leave(waiter, notEmptyWaiters);
+        }
+    }
+
+    /**
+     * @return The maximum number of objects of the {@link ConcurrentQueue}
+     */
+    @Contract(pure = true)
+    public int capacity() {return this.objects.length;}
+
+    /**
+     * Returns the number of objects in the {@link ConcurrentQueue}
+     * <p> The value may already be outdated when it is returned if other threads are using the queue </p>
+     * @return The number of objects in the {@link ConcurrentQueue}
+     */
+    public int size() {
+        while (true) {
+            long headPosition = head.get();
+            long tailPosition = tail.get();
+            if (head.get() == headPosition) return (int) Math.max(0, Math.min(tailPosition - headPosition, capacity()));
+        }
+    }
+
+    /**
+     * @return {@code true} if the {@link ConcurrentQueue} contains no object, {@code false} otherwise
+     */
+    public boolean isEmpty() {return size() == 0;}
+
+    /**
+     * Parks the thread until it is signalled, or until the deadline is reached if the wait is timed. The deadline is
+     * only compared through differences with {@link System#nanoTime()}, which stay right when the clock overflows
+     * @return {@code true} if the thread should try again, {@code false} if the deadline is reached
+     * @throws InterruptedException If the thread is interrupted, clearing its interrupt status like
+     * {@link Thread#interrupted()}
+     */
+    private boolean await(@NotNull Waiter waiter, boolean timed, long deadline) throws InterruptedException {
+        while (!waiter.signalled) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (!timed) {
+                LockSupport.park(this);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            LockSupport.parkNanos(this, remaining);
+        }
+        waiter.signalled = false;
+        return true;
+    }
+
+    /**
+     * Unregisters a waiter. If it was signalled but didn't need to be, the signal is passed to the next waiter so
+     * that it isn't lost
+     */
+    private void leave(@NotNull Waiter waiter, @NotNull ConcurrentLinkedQueue<Waiter> waiters) {
+        waiters.remove(waiter);
+        if (waiter.signalled) signal(waiters);
+    }
+
+    private void signal(@NotNull ConcurrentLinkedQueue<Waiter> waiters) {
+        if (waiters.isEmpty()) return;
+        Waiter waiter = waiters.poll();
+        if (waiter == null) return;
+        waiter.signalled = true;
+        LockSupport.unpark(waiter.thread);
+    }
+
+    /**
+     * A thread waiting for the {@link ConcurrentQueue} to change
+     */
+    private static final class Waiter {
+        private final Thread thread = Thread.currentThread();
+        private volatile boolean signalled;
+    }
+
+    // The padding fields keep a position alone on its cache line, so that the producers and the consumers don't
+    // invalidate each other's caches
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        private long p01, p02, p03, p04, p05, p06, p07, p08;
+    }
+
+    private static class Position extends LeftPadding {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Position.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long value;
+
+        protected long get() {return this.value;}
+
+        protected boolean compareAndSet(long expected, long value) {return VALUE.compareAndSet(this, expected, value);}
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedPosition extends Position {
+        private long p11, p12, p13, p14, p15, p16, p17, p18;
+    }
+}
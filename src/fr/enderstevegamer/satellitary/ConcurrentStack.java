@@ -0,0 +1,147 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ *     A thread-safe version of {@link Stack}, which any number of threads can stack to and unstack from
+ * </p>
+ * <p>
+ *     The objects are chained from the top of the {@link ConcurrentStack}, which is replaced with a single
+ *     compare-and-set, so no lock is ever taken. When threads collide on the top, they try to meet in an elimination
+ *     array instead: a thread stacking an object hands it directly to a thread unstacking, and neither of them has to
+ *     touch the top
+ * </p>
+ * @param <T> The type of the elements contained in the {@link ConcurrentStack}
+ */
+public class ConcurrentStack<T> {
+    // The number of times a thread waits in the elimination array for another thread to take its object
+    private static final int ELIMINATION_SPINS = 128;
+
+    private final AtomicReference<Node<T>> top = new AtomicReference<>();
+    private final AtomicReferenceArray<Node<T>> eliminationArray;
+
+    /**
+     * A constructor creating an empty {@link ConcurrentStack}
+     */
+    public ConcurrentStack() {
+        int slots = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 32));
+        this.eliminationArray = new AtomicReferenceArray<>(slots);
+    }
+
+    /**
+     * Adds an object on the top of the {@link ConcurrentStack}
+     * @param object The object to add to the {@link ConcurrentStack}
+     */
+    public void stack(T object) {
+        Node<T> node = new Node<>(object);
+        while (true) {
+            Node<T> current = top.get();
+            node.next = current;
+            if (top.compareAndSet(current, node)) return;
+            if (giveAway(node)) return;
+        }
+    }
+
+    /**
+     * Removes the last inserted object from the {@link ConcurrentStack}
+     * @return The removed object
+     * @throws IllegalStateException If the {@link ConcurrentStack} is empty
+     */
+    public T unstack() {
+        while (true) {
+            Node<T> current = top.get();
+            if (current == null) throw new IllegalStateException("Can't unstack from an empty stack!");
+            if (top.compareAndSet(current, current.next)) return current.value;
+            Node<T> given = takeGiven();
+            if (given != null) return given.value;
+        }
+    }
+
+    /**
+     * Removes the last inserted object from the {@link ConcurrentStack} if there is one
+     * @return The removed object, or {@code null} if the {@link ConcurrentStack} is empty
+     */
+    public @Nullable T tryUnstack() {
+        while (true) {
+            Node<T> current = top.get();
+            if (current == null) return null;
+            if (top.compareAndSet(current, current.next)) return current.value;
+            Node<T> given = takeGiven();
+            if (given != null) return given.value;
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes all the objects from the {@link ConcurrentStack} at once
+     * </p>
+     * <p>
+     *     The whole chain of objects is detached with a single atomic operation, so no other thread can unstack one
+     *     of them while they are being collected
+     * </p>
+     * @return The removed objects, from the last to the first inserted
+     */
+    public @NotNull ArrayList<T> unstackAll() {
+        ArrayList<T> objects = new ArrayList<>();
+        for (Node<T> node = top.getAndSet(null); node != null; node = node.next) objects.add(node.value);
+        return objects;
+    }
+
+    /**
+     * @return {@code true} if the {@link ConcurrentStack} contains no object, {@code false} otherwise
+     */
+    public boolean isEmpty() {return top.get() == null;}
+
+    /**
+     * Counts the objects in the {@link ConcurrentStack}
+     * <p> This goes through the whole chain, and the value may already be outdated when it is returned </p>
+     * @return The number of objects in the {@link ConcurrentStack}
+     */
+    public int stackSize() {
+        int size = 0;
+        for (Node<T> node = top.get(); node != null; node = node.next) size++;
+        return size;
+    }
+
+    /**
+     * Offers the node to a thread unstacking, through a random slot of the elimination array
+     * @return {@code true} if a thread took the node, {@code false} if it has to be stacked normally
+     */
+    private boolean giveAway(@NotNull Node<T> node) {
+        int slot = ThreadLocalRandom.current().nextInt(eliminationArray.length());
+        if (!eliminationArray.compareAndSet(slot, null, node)) return false;
+        for (int i = 0; i < ELIMINATION_SPINS; i++) {
+            if (eliminationArray.get(slot) != node) return true;
+            Thread.onSpinWait();
+        }
+        // If the node can't be withdrawn, a thread took it in the meantime
+        return !eliminationArray.compareAndSet(slot, node, null);
+    }
+
+    /**
+     * Takes a node offered by a thread stacking, from a random slot of the elimination array
+     * @return The taken node, or {@code null} if there was none in the slot
+     */
+    private @Nullable Node<T> takeGiven() {
+        int slot = ThreadLocalRandom.current().nextInt(eliminationArray.length());
+        Node<T> node = eliminationArray.get(slot);
+        if (node != null && eliminationArray.compareAndSet(slot, node, null)) return node;
+        return null;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private Node<T> next;
+
+        @Contract(pure = true)
+        private Node(T value) {this.value = value;}
+    }
+}
@@ -0,0 +1,192 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     An {@link ObjectGroup} keeping a hash index of its objects next to the list, so that
+ *     {@link IndexedObjectGroup#contains(Object)} and {@link IndexedObjectGroup#remove(Object)} take constant time
+ * </p>
+ * <p>
+ *     Removed objects are only counted as pending, and are all taken out of the list in a single pass, keeping the
+ *     order of the others, the next time the list is read. Removing a batch of objects with
+ *     {@link IndexedObjectGroup#removeAll(Collection)} therefore costs one pass over the list instead of one per object
+ * </p>
+ * <p>
+ *     The list returned by {@link IndexedObjectGroup#getObjects()} must not be modified directly, as the index wouldn't
+ *     see the changes
+ * </p>
+ * @param <T> The type of the elements contained in the {@link IndexedObjectGroup}
+ */
+@SuppressWarnings("unused")
+public class IndexedObjectGroup<T> extends ObjectGroup<T> {
+    private final Equivalence equivalence;
+    private final boolean unique;
+    // The number of times each object is in the group, without the pending removals
+    private final Map<Object, int[]> counts;
+    // The number of occurrences of each object still to be taken out of the list, from the start
+    private final Map<Object, int[]> pendingRemovals;
+    private int pendingRemovalCount;
+
+    /**
+     * A constructor creating an empty {@link IndexedObjectGroup}
+     * @param equivalence How objects are compared in the index
+     * @param unique {@code true} if the group rejects duplicates like a set, {@code false} otherwise
+     */
+    public IndexedObjectGroup(@NotNull Equivalence equivalence, boolean unique) {
+        super();
+        this.equivalence = equivalence;
+        this.unique = unique;
+        this.counts = equivalence.newMap();
+        this.pendingRemovals = equivalence.newMap();
+    }
+
+    /**
+     * A constructor creating an empty {@link IndexedObjectGroup} comparing objects with {@link Object#equals(Object)}
+     * and allowing duplicates
+     */
+    public IndexedObjectGroup() {this(Equivalence.EQUALITY, false);}
+
+    /**
+     * A constructor creating an {@link IndexedObjectGroup} containing the elements of the collection
+     * @see IndexedObjectGroup#IndexedObjectGroup(Equivalence, boolean)
+     */
+    public IndexedObjectGroup(@NotNull Equivalence equivalence, boolean unique, @NotNull Collection<T> elements) {
+        this(equivalence, unique);
+        this.addAll(elements);
+    }
+
+    @Override
+    public int size() {return this.objects.size() - this.pendingRemovalCount;}
+
+    /**
+     * Adds an object at the end of the group
+     * @param element The object to add
+     * @return {@code true} if the object was added, {@code false} if the group is unique and already contains it
+     */
+    @Override
+    public boolean add(@NotNull T element) {
+        int[] count = this.counts.get(element);
+        if (count != null && this.unique) return false;
+        if (count == null) this.counts.put(element, new int[] {1});
+        else count[0]++;
+        this.objects.add(element);
+        return true;
+    }
+
+    /**
+     * Removes the first occurrence of the object, in constant time
+     * @param element The object to remove
+     * @return {@code true} if the group contained the object, {@code false} otherwise
+     */
+    @Override
+    public boolean remove(T element) {
+        int[] count = this.counts.get(element);
+        if (count == null) return false;
+        if (--count[0] == 0) this.counts.remove(element);
+        int[] pending = this.pendingRemovals.get(element);
+        if (pending == null) this.pendingRemovals.put(element, new int[] {1});
+        else pending[0]++;
+        this.pendingRemovalCount++;
+        return true;
+    }
+
+    @Override
+    public T remove(int index) {
+        this.compact();
+        T element = this.objects.remove(index);
+        int[] count = this.counts.get(element);
+        if (--count[0] == 0) this.counts.remove(element);
+        return element;
+    }
+
+    @Override
+    public void clear() {
+        this.objects.clear();
+        this.counts.clear();
+        this.pendingRemovals.clear();
+        this.pendingRemovalCount = 0;
+    }
+
+    /**
+     * @return {@code true} if the group contains the object, {@code false} otherwise
+     */
+    @Override
+    public boolean contains(T element) {return this.counts.containsKey(element);}
+
+    /**
+     * @return The number of times the group contains the object
+     */
+    public int count(T element) {
+        int[] count = this.counts.get(element);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * @return How objects are compared in the index
+     */
+    @Contract(pure = true)
+    public @NotNull Equivalence getEquivalence() {return this.equivalence;}
+
+    /**
+     * @return {@code true} if the group rejects duplicates, {@code false} otherwise
+     */
+    @Contract(pure = true)
+    public boolean isUnique() {return this.unique;}
+
+    /**
+     * @return The objects of the group, in insertion order, after taking out the pending removals
+     */
+    @Override
+    public ArrayList<T> getObjects() {
+        this.compact();
+        return this.objects;
+    }
+
+    /**
+     * Takes the pending removals out of the list in a single pass, keeping the order of the remaining objects
+     */
+    private void compact() {
+        if (this.pendingRemovalCount == 0) return;
+        int kept = 0;
+        int size = this.objects.size();
+        for (int i = 0; i < size; i++) {
+            T element = this.objects.get(i);
+            if (this.pendingRemovalCount > 0) {
+                int[] pending = this.pendingRemovals.get(element);
+                if (pending != null) {
+                    if (--pending[0] == 0) this.pendingRemovals.remove(element);
+                    this.pendingRemovalCount--;
+                    continue;
+                }
+            }
+            this.objects.set(kept++, element);
+        }
+        this.objects.subList(kept, size).clear();
+    }
+
+    /**
+     * How an {@link IndexedObjectGroup} decides that two objects are the same
+     */
+    public enum Equivalence {
+        /**
+         * Objects are the same if they are the same instance
+         */
+        IDENTITY,
+        /**
+         * Objects are the same if {@link Object#equals(Object)} says so
+         */
+        EQUALITY;
+
+        private <V> @NotNull Map<Object, V> newMap() {
+            return this == IDENTITY ? new IdentityHashMap<>() : new HashMap<>();
+        }
+    }
+}
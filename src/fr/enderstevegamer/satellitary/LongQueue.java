@@ -0,0 +1,139 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ *     A {@link Queue} of {@code long}
+ * </p>
+ * <p>
+ *     The values are stored in a circular {@code long} array, so queuing and unqueuing never allocate once the array is
+ *     big enough. Clearing the {@link LongQueue} keeps its array, so it can be reused without growing again
+ * </p>
+ */
+public class LongQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int head;
+    private int size;
+
+    /**
+     * A constructor creating an empty {@link LongQueue}
+     */
+    @Contract(pure = true)
+    public LongQueue() {this(DEFAULT_CAPACITY);}
+
+    /**
+     * A constructor creating an empty {@link LongQueue} able to hold the given number of values without growing
+     * @param capacity The initial capacity of the {@link LongQueue}, rounded up to a power of two
+     */
+    @Contract(pure = true)
+    public LongQueue(int capacity) {this.values = new long[capacityFor(capacity)];}
+
+    /**
+     * A contructor cloning the given {@link LongQueue}
+     * @param other The {@link LongQueue} to clone
+     */
+    @Contract(pure = true)
+    public LongQueue(@NotNull LongQueue other) {
+        this.values = new long[other.values.length];
+        other.copyTo(this.values);
+        this.size = other.size;
+    }
+
+    /**
+     * Adds a value at the end of the {@link LongQueue}
+     * @param value The value to add to the {@link LongQueue}
+     */
+    public void queue(long value) {
+        if (size == values.length) resize(capacityFor(size + 1));
+        values[(head + size) & (values.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Adds values at the end of the {@link LongQueue}, in order
+     * @param values The values to add to the {@link LongQueue}
+     */
+    public void queueAll(long @NotNull ... values) {
+        if (size + values.length > this.values.length) resize(capacityFor(size + values.length));
+        int start = (head + size) & (this.values.length - 1);
+        int firstPart = Math.min(values.length, this.values.length - start);
+        System.arraycopy(values, 0, this.values, start, firstPart);
+        System.arraycopy(values, firstPart, this.values, 0, values.length - firstPart);
+        size += values.length;
+    }
+
+    /**
+     * Removes the first inserted value from the {@link LongQueue}
+     * @return The removed value
+     */
+    public long unqueue() {
+        if (size == 0) throw new IllegalStateException("Can't unqueue from an empty queue!");
+        long value = values[head];
+        head = (head + 1) & (values.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns the first inserted value without removing it from the {@link LongQueue}
+     * @return The first inserted value
+     */
+    public long peek() {
+        if (size == 0) throw new IllegalStateException("Can't peek into an empty queue!");
+        return values[head];
+    }
+
+    /**
+     * Removes all the values from the {@link LongQueue}, keeping its capacity
+     */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return The number of values in the {@link LongQueue}
+     */
+    @Contract(pure = true)
+    public int size() {return this.size;}
+
+    /**
+     * @return {@code true} if the {@link LongQueue} contains no value, {@code false} otherwise
+     */
+    @Contract(pure = true)
+    public boolean isEmpty() {return this.size == 0;}
+
+    /**
+     * @return A new array with the values of the {@link LongQueue}, from the first to the last inserted
+     */
+    public long @NotNull [] toArray() {
+        long[] array = new long[size];
+        copyTo(array);
+        return array;
+    }
+
+    private void copyTo(long[] array) {
+        int firstPart = Math.min(size, values.length - head);
+        System.arraycopy(values, head, array, 0, firstPart);
+        System.arraycopy(values, 0, array, firstPart, size - firstPart);
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        copyTo(resized);
+        values = resized;
+        head = 0;
+    }
+
+    @Contract(pure = true)
+    private static int capacityFor(int size) {
+        if (size < 0) throw new IllegalArgumentException("The capacity can't be negative!");
+        if (size <= DEFAULT_CAPACITY) return DEFAULT_CAPACITY;
+        if (size > 1 << 30) throw new IllegalStateException("The queue can't hold more than 2^30 values!");
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+}
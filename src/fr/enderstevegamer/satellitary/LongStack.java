@@ -0,0 +1,106 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     A {@link Stack} of {@code long}
+ * </p>
+ * <p>
+ *     The values are stored in an {@code long} array, so stacking and unstacking never allocate once the array is big
+ *     enough. Clearing the {@link LongStack} keeps its array, so it can be reused without growing again
+ * </p>
+ */
+public class LongStack {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int size;
+
+    /**
+     * A constructor creating an empty {@link LongStack}
+     */
+    @Contract(pure = true)
+    public LongStack() {this(DEFAULT_CAPACITY);}
+
+    /**
+     * A constructor creating an empty {@link LongStack} able to hold the given number of values without growing
+     * @param capacity The initial capacity of the {@link LongStack}
+     */
+    @Contract(pure = true)
+    public LongStack(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("The capacity can't be negative!");
+        this.values = new long[capacity];
+    }
+
+    /**
+     * A contructor cloning the given {@link LongStack}
+     * @param other The {@link LongStack} to clone
+     */
+    @Contract(pure = true)
+    public LongStack(@NotNull LongStack other) {
+        this.values = Arrays.copyOf(other.values, Math.max(other.size, DEFAULT_CAPACITY));
+        this.size = other.size;
+    }
+
+    /**
+     * Adds a value on the top of the {@link LongStack}
+     * @param value The value to add to the {@link LongStack}
+     */
+    public void stack(long value) {
+        if (size == values.length) grow(size + 1);
+        values[size++] = value;
+    }
+
+    /**
+     * Adds values on the top of the {@link LongStack}, the last one ending on the top
+     * @param values The values to add to the {@link LongStack}
+     */
+    public void stackAll(long @NotNull ... values) {
+        if (size + values.length > this.values.length) grow(size + values.length);
+        System.arraycopy(values, 0, this.values, size, values.length);
+        size += values.length;
+    }
+
+    /**
+     * Removes the last inserted value from the {@link LongStack}
+     * @return The removed value
+     */
+    public long unstack() {
+        if (size == 0) throw new IllegalStateException("Can't unstack from an empty stack!");
+        return values[--size];
+    }
+
+    /**
+     * Returns the last inserted value without removing it from the {@link LongStack}
+     * @return The value on the top of the {@link LongStack}
+     */
+    public long peek() {
+        if (size == 0) throw new IllegalStateException("Can't peek into an empty stack!");
+        return values[size - 1];
+    }
+
+    /**
+     * Removes all the values from the {@link LongStack}, keeping its capacity
+     */
+    public void clear() {this.size = 0;}
+
+    public boolean isEmpty() {return this.size == 0;}
+
+    public int stackSize() {return this.size;}
+
+    /**
+     * @return A new array with the values of the {@link LongStack}, from the bottom to the top
+     */
+    public long @NotNull [] toArray() {return Arrays.copyOf(this.values, this.size);}
+
+    private void grow(int needed) {
+        if (needed < 0) throw new IllegalStateException("The stack is too big!");
+        int capacity = Math.max(needed, values.length + (values.length >> 1) + 1);
+        if (capacity < 0) capacity = Integer.MAX_VALUE - 8;
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -6,10 +6,22 @@ import org.jetbrains.annotations.NotNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @SuppressWarnings("unused")
 public class ObjectGroup<T> {
-    private final ArrayList<T> objects;
+    // The size under which bulk operations run sequentially, as splitting would cost more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    private static final int MIN_LEAF_SIZE = 1 << 10;
+
+    protected final ArrayList<T> objects;
 
 
 
@@ -54,6 +66,169 @@ public class ObjectGroup<T> {
 
     public void clear() {this.objects.clear();}
 
+    public boolean contains(T element) {return this.objects.contains(element);}
+
+    /**
+     * Runs the action on each object of the group, in parallel on the common {@link ForkJoinPool} if the group is big
+     */
+    public void forEach(@NotNull Consumer<? super T> action) {this.forEach(action, ForkJoinPool.commonPool());}
+
+    /**
+     * Runs the action on each object of the group, in parallel on the given pool if the group is big
+     */
+    public void forEach(@NotNull Consumer<? super T> action, @NotNull ForkJoinPool pool) {
+        ArrayList<T> objects = this.getObjects();
+        this.<Void>process(objects, pool, (from, to) -> {
+            for (int i = from; i < to; i++) action.accept(objects.get(i));
+            return null;
+        }, (left, right) -> null);
+    }
+
+    /**
+     * Creates a group with the results of the function applied to each object, in the same order
+     */
+    public <R> @NotNull ObjectGroup<R> map(@NotNull Function<? super T, ? extends R> function) {
+        return this.map(function, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a group with the results of the function applied to each object, in the same order, computed on the
+     * given pool
+     */
+    @SuppressWarnings("unchecked")
+    public <R> @NotNull ObjectGroup<R> map(@NotNull Function<? super T, ? extends R> function,
+                                           @NotNull ForkJoinPool pool) {
+        ArrayList<T> objects = this.getObjects();
+        Object[] results = new Object[objects.size()];
+        this.<Void>process(objects, pool, (from, to) -> {
+            for (int i = from; i < to; i++) results[i] = function.apply(objects.get(i));
+            return null;
+        }, (left, right) -> null);
+        return new ObjectGroup<>((R[]) results);
+    }
+
+    /**
+     * Creates a group with the objects matching the predicate, in the same order
+     */
+    public @NotNull ObjectGroup<T> filter(@NotNull Predicate<? super T> predicate) {
+        return this.filter(predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a group with the objects matching the predicate, in the same order, tested on the given pool
+     */
+    public @NotNull ObjectGroup<T> filter(@NotNull Predicate<? super T> predicate, @NotNull ForkJoinPool pool) {
+        ArrayList<T> objects = this.getObjects();
+        ArrayList<T> kept = this.process(objects, pool, (from, to) -> {
+            ArrayList<T> part = new ArrayList<>();
+            for (int i = from; i < to; i++) if (predicate.test(objects.get(i))) part.add(objects.get(i));
+            return part;
+        }, ObjectGroup::concatenate);
+        return new ObjectGroup<>(kept);
+    }
+
+    /**
+     * Combines all the objects of the group with the operator, which must be associative
+     * @param identity The result for an empty group, which must not change an object when combined with it
+     */
+    public T reduce(T identity, @NotNull BinaryOperator<T> operator) {
+        return this.reduce(identity, operator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Combines all the objects of the group with the operator, which must be associative, on the given pool
+     * @param identity The result for an empty group, which must not change an object when combined with it
+     */
+    public T reduce(T identity, @NotNull BinaryOperator<T> operator, @NotNull ForkJoinPool pool) {
+        ArrayList<T> objects = this.getObjects();
+        return this.process(objects, pool, (from, to) -> {
+            T result = identity;
+            for (int i = from; i < to; i++) result = operator.apply(result, objects.get(i));
+            return result;
+        }, operator);
+    }
+
+    /**
+     * Splits the group in the objects matching the predicate and the others, keeping their order
+     * @return The objects matching the predicate under {@code true}, and the others under {@code false}
+     */
+    public @NotNull Map<Boolean, ObjectGroup<T>> partition(@NotNull Predicate<? super T> predicate) {
+        return this.partition(predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Splits the group in the objects matching the predicate and the others, keeping their order, on the given pool
+     * @return The objects matching the predicate under {@code true}, and the others under {@code false}
+     */
+    public @NotNull Map<Boolean, ObjectGroup<T>> partition(@NotNull Predicate<? super T> predicate,
+                                                           @NotNull ForkJoinPool pool) {
+        ArrayList<T> objects = this.getObjects();
+        ArrayList<T>[] parts = this.process(objects, pool, (from, to) -> {
+            @SuppressWarnings("unchecked")
+            ArrayList<T>[] split = (ArrayList<T>[]) new ArrayList<?>[] {new ArrayList<T>(), new ArrayList<T>()};
+            for (int i = from; i < to; i++) split[predicate.test(objects.get(i)) ? 0 : 1].add(objects.get(i));
+            return split;
+        }, (left, right) -> {
+            concatenate(left[0], right[0]);
+            concatenate(left[1], right[1]);
+            return left;
+        });
+        Map<Boolean, ObjectGroup<T>> partition = new HashMap<>();
+        partition.put(true, new ObjectGroup<>(parts[0]));
+        partition.put(false, new ObjectGroup<>(parts[1]));
+        return partition;
+    }
+
+    /**
+     * Processes the list sequentially if it is small, or else splits it in even ranges processed on the pool
+     */
+    private <A> A process(@NotNull ArrayList<T> objects, @NotNull ForkJoinPool pool,
+                          @NotNull RangeFunction<A> leaf, @NotNull BinaryOperator<A> combiner) {
+        int size = objects.size();
+        if (size < PARALLEL_THRESHOLD || pool.getParallelism() <= 1) return leaf.apply(0, size);
+        int leafSize = Math.max(MIN_LEAF_SIZE, size / (pool.getParallelism() << 2));
+        return pool.invoke(new RangeTask<>(0, size, leafSize, leaf, combiner));
+    }
+
+    @Contract(mutates = "param1")
+    private static <T> @NotNull ArrayList<T> concatenate(@NotNull ArrayList<T> left, @NotNull ArrayList<T> right) {
+        left.addAll(right);
+        return left;
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction<A> {
+        A apply(int from, int to);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RangeTask<A> extends RecursiveTask<A> {
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final RangeFunction<A> leaf;
+        private final BinaryOperator<A> combiner;
+
+        private RangeTask(int from, int to, int leafSize, RangeFunction<A> leaf, BinaryOperator<A> combiner) {
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (this.to - this.from <= this.leafSize) return this.leaf.apply(this.from, this.to);
+            int middle = (this.from + this.to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(this.from, middle, this.leafSize, this.leaf, this.combiner);
+            RangeTask<A> right = new RangeTask<>(middle, this.to, this.leafSize, this.leaf, this.combiner);
+            left.fork();
+            A rightResult = right.compute();
+            return this.combiner.apply(left.join(), rightResult);
+        }
+    }
+
 
 
 
@@ -3,7 +3,10 @@ package fr.enderstevegamer.satellitary;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * <p>
@@ -15,36 +18,191 @@ import java.util.ArrayList;
  * <p>
  *     When unqueuing an object, the first inserted object is removed from the {@link Queue} and returned
  * </p>
+ * <p>
+ *     The objects are stored in a circular buffer, so queuing and unqueuing take a constant time. The buffer grows
+ *     when it is full, and shrinks back when it is mostly empty
+ * </p>
  * @param <T> The type of the elements contained in the {@link Queue}
  */
-public class Queue<T> {
-    private final ArrayList<T> objects;
+public class Queue<T> implements Iterable<T> {
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] objects;
+    private int head;
+    private int size;
+    private int modCount;
 
     /**
      * A constructor creating an empty {@link Queue}
      */
     @Contract(pure = true)
-    public Queue() {objects = new ArrayList<>();}
+    public Queue() {this.objects = new Object[MIN_CAPACITY];}
 
     /**
      * A contructor cloning the given {@link Queue}
      * @param other The {@link Queue} to clone
      */
     @Contract(pure = true)
-    public Queue(@NotNull Queue<T> other) {this.objects = new ArrayList<>(other.objects);}
+    public Queue(@NotNull Queue<T> other) {
+        this.objects = new Object[capacityFor(other.size)];
+        other.copyTo(this.objects);
+        this.size = other.size;
+    }
 
     /**
      * Adds an object at the end of the {@link Queue}
      * @param object The object to add to the {@link Queue}
      */
-    public void queue(T object) {objects.add(object);}
+    public void queue(T object) {
+        if (size == objects.length) resize(capacityFor(size + 1));
+        objects[(head + size) & (objects.length - 1)] = object;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Adds all the objects of the collection at the end of the {@link Queue}, in the order of its iterator
+     * @param objects The objects to add to the {@link Queue}
+     */
+    public void queueAll(@NotNull Collection<? extends T> objects) {
+        int needed = size + objects.size();
+        if (needed > this.objects.length) resize(capacityFor(needed));
+        for (T object : objects) queue(object);
+    }
 
     /**
      * Removes the first inserted object from the {@link Queue}
      * @return The removed object
      */
+    @SuppressWarnings("unchecked")
     public T unqueue() {
-        if (objects.isEmpty()) throw new IllegalStateException("Can't unqueue from an empty queue!");
-        return objects.remove(0);
+        if (size == 0) throw new IllegalStateException("Can't unqueue from an empty queue!");
+        T object = (T) objects[head];
+        objects[head] = null;
+        head = (head + 1) & (objects.length - 1);
+        size--;
+        modCount++;
+        shrinkIfSparse();
+        return object;
+    }
+
+    /**
+     * Returns the first inserted object without removing it from the {@link Queue}
+     * @return The first inserted object
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (size == 0) throw new IllegalStateException("Can't peek into an empty queue!");
+        return (T) objects[head];
+    }
+
+    /**
+     * <p>
+     *     Removes at most {@code max} objects from the {@link Queue} and adds them to the collection, in the order
+     *     they were queued
+     * </p>
+     * @param collection The {@link Collection} to add the removed objects to
+     * @param max The maximum number of objects to remove
+     * @return The number of removed objects
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(@NotNull Collection<? super T> collection, int max) {
+        if (max < 0) throw new IllegalArgumentException("Can't drain a negative number of objects!");
+        int drained = Math.min(max, size);
+        int mask = objects.length - 1;
+        for (int i = 0; i < drained; i++) {
+            int index = (head + i) & mask;
+            collection.add((T) objects[index]);
+            objects[index] = null;
+        }
+        head = (head + drained) & mask;
+        size -= drained;
+        modCount++;
+        shrinkIfSparse();
+        return drained;
+    }
+
+    /**
+     * Removes all the objects from the {@link Queue} and adds them to the collection, in the order they were queued
+     * @param collection The {@link Collection} to add the removed objects to
+     * @return The number of removed objects
+     */
+    public int drainTo(@NotNull Collection<? super T> collection) {return drainTo(collection, size);}
+
+    /**
+     * Removes all the objects from the {@link Queue}
+     */
+    public void clear() {
+        objects = new Object[MIN_CAPACITY];
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return The number of objects in the {@link Queue}
+     */
+    @Contract(pure = true)
+    public int size() {return this.size;}
+
+    /**
+     * @return {@code true} if the {@link Queue} contains no object, {@code false} otherwise
+     */
+    @Contract(pure = true)
+    public boolean isEmpty() {return this.size == 0;}
+
+    /**
+     * Returns an {@link Iterator} going through the objects from the first to the last inserted, without removing
+     * them
+     * @return The {@link Iterator}
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {return index < size;}
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (index >= size) throw new NoSuchElementException();
+                return (T) objects[(head + index++) & (objects.length - 1)];
+            }
+        };
+    }
+
+    /**
+     * Copies the objects in order to the start of the array
+     */
+    private void copyTo(Object[] array) {
+        int firstPart = Math.min(size, objects.length - head);
+        System.arraycopy(objects, head, array, 0, firstPart);
+        System.arraycopy(objects, 0, array, firstPart, size - firstPart);
+    }
+
+    private void resize(int capacity) {
+        Object[] resized = new Object[capacity];
+        copyTo(resized);
+        objects = resized;
+        head = 0;
+    }
+
+    /**
+     * Shrinks the buffer when it is less than a quarter full, leaving it half full so that it can grow again
+     * without resizing right away
+     */
+    private void shrinkIfSparse() {
+        if (objects.length > MIN_CAPACITY && size < objects.length >>> 2) resize(capacityFor(size << 1));
+    }
+
+    @Contract(pure = true)
+    private static int capacityFor(int size) {
+        if (size <= MIN_CAPACITY) return MIN_CAPACITY;
+        if (size > 1 << 30) throw new IllegalStateException("The queue can't hold more than 2^30 objects!");
+        return Integer.highestOneBit(size - 1) << 1;
     }
 }
@@ -0,0 +1,436 @@
+package fr.enderstevegamer.satellitary;
+
+import fr.enderstevegamer.satellitary.io.Codec;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     A {@link Queue} that can hold more objects than fit in memory, by spilling them to files
+ * </p>
+ * <p>
+ *     The first objects to be unqueued and the last queued objects are kept in memory. When there are too many
+ *     objects in between, they are written to append-only segment files through memory mapping, and read back in
+ *     batches when the objects before them are unqueued. A segment is deleted once all its objects are unqueued
+ * </p>
+ * <p>
+ *     Closing the {@link SpillingQueue} saves the objects that are still in memory, so opening it again on the same
+ *     directory recovers all of them. If the process stops without closing it, the objects that were only in memory
+ *     are lost, and the objects of the last batch read from a segment may be unqueued again
+ * </p>
+ * @param <T> The type of the elements contained in the {@link SpillingQueue}
+ */
+public class SpillingQueue<T> implements Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private static final int SEGMENT_MAGIC = 0x53505351;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    // The lengths of the records are stored plus one, so that the zeroes of the unwritten part of a segment end it
+    private static final int NO_RECORD = 0;
+    private static final int SEGMENT_END = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String CHECKPOINT_FILE = "checkpoint.dat";
+    private static final String HEAD_FILE = "head.dat";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final int memoryCapacity;
+    private final int segmentSize;
+
+    // The objects to unqueue first, which either all come from a segment or were all moved from the tail
+    private Queue<T> head;
+    private Queue<T> tail;
+    private boolean headFromDisk;
+
+    // The objects of the segments that aren't in the head yet
+    private long diskSize;
+    private long readSegment;
+    private MappedByteBuffer readBuffer;
+    private long batchSegment;
+    private int batchOffset;
+    private int batchSize;
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private boolean closed;
+
+    /**
+     * Opens a {@link SpillingQueue} in the directory, recovering the objects that were left in it when it was last
+     * closed
+     * @param directory The directory holding the files of the {@link SpillingQueue}, which is created if needed
+     * @param codec The {@link Codec} converting the objects to bytes
+     * @param memoryCapacity The number of objects kept in memory at the start and at the end of the queue each
+     * @param segmentSize The size of a segment file, in bytes
+     * @throws IOException If the directory or its files can't be read or written
+     */
+    public SpillingQueue(@NotNull Path directory, @NotNull Codec<T> codec, int memoryCapacity, int segmentSize)
+            throws IOException {
+        if (memoryCapacity <= 0) throw new IllegalArgumentException("The memory capacity must be positive!");
+        if (segmentSize <= HEADER_SIZE + 2 * Integer.BYTES) throw new IllegalArgumentException(
+                "The segment size is too small!"
+        );
+        this.directory = Files.createDirectories(directory);
+        this.codec = codec;
+        this.memoryCapacity = memoryCapacity;
+        this.segmentSize = segmentSize;
+        this.head = new Queue<>();
+        this.tail = new Queue<>();
+        recover();
+    }
+
+    /**
+     * Opens a {@link SpillingQueue} in the directory with segments of 64 MiB
+     * @param directory The directory holding the files of the {@link SpillingQueue}, which is created if needed
+     * @param codec The {@link Codec} converting the objects to bytes
+     * @param memoryCapacity The number of objects kept in memory at the start and at the end of the queue each
+     * @throws IOException If the directory or its files can't be read or written
+     * @see SpillingQueue#SpillingQueue(Path, Codec, int, int)
+     */
+    public SpillingQueue(@NotNull Path directory, @NotNull Codec<T> codec, int memoryCapacity) throws IOException {
+        this(directory, codec, memoryCapacity, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Adds an object at the end of the {@link SpillingQueue}
+     * @param object The object to add to the {@link SpillingQueue}
+     * @throws UncheckedIOException If the object had to be spilled and the segment can't be written
+     */
+    public void queue(T object) {
+        ensureOpen();
+        tail.queue(object);
+        if (tail.size() >= memoryCapacity) {
+            try {
+                spillTail();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the first inserted object from the {@link SpillingQueue}
+     * @return The removed object
+     * @throws UncheckedIOException If the object had to be read from a segment that can't be read
+     */
+    public T unqueue() {
+        ensureOpen();
+        if (head.isEmpty()) {
+            try {
+                refillHead();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (head.isEmpty()) throw new IllegalStateException("Can't unqueue from an empty queue!");
+        return head.unqueue();
+    }
+
+    /**
+     * @return The number of objects in the {@link SpillingQueue}
+     */
+    @Contract(pure = true)
+    public long size() {return head.size() + diskSize + tail.size();}
+
+    /**
+     * @return {@code true} if the {@link SpillingQueue} contains no object, {@code false} otherwise
+     */
+    @Contract(pure = true)
+    public boolean isEmpty() {return size() == 0;}
+
+    /**
+     * @return The number of objects stored in segment files and not loaded in memory
+     */
+    @Contract(pure = true)
+    public long spilledSize() {return this.diskSize;}
+
+    /**
+     * Saves the objects kept in memory and closes the segment files
+     * @throws IOException If the files can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        if (!headFromDisk) writeHeadFile();
+        spillTail();
+        if (writeBuffer != null) writeBuffer.force();
+        if (headFromDisk && !head.isEmpty()) writeCheckpoint(batchSegment, batchOffset, batchSize - head.size());
+        else writeCheckpoint(readSegment, readBuffer == null ? HEADER_SIZE : readBuffer.position(), 0);
+        head = new Queue<>();
+        tail = new Queue<>();
+        readBuffer = null;
+        writeBuffer = null;
+        closed = true;
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("The queue is closed!");
+    }
+
+    /**
+     * Moves the next objects to the head, reading them from the segments if there are some there
+     */
+    private void refillHead() throws IOException {
+        if (diskSize > 0) {
+            loadBatch();
+            return;
+        }
+        Queue<T> emptyHead = head;
+        head = tail;
+        tail = emptyHead;
+        headFromDisk = false;
+    }
+
+    /**
+     * Reads the next objects of the current read segment into the head, which is empty
+     */
+    private void loadBatch() throws IOException {
+        if (readBuffer == null) readBuffer = mapSegment(readSegment, FileChannel.MapMode.READ_ONLY);
+        long firstSegment = readSegment;
+        while (readBuffer.getInt(readBuffer.position()) == SEGMENT_END) {
+            readBuffer = mapSegment(++readSegment, FileChannel.MapMode.READ_ONLY);
+        }
+        batchSegment = readSegment;
+        batchOffset = readBuffer.position();
+        writeCheckpoint(batchSegment, batchOffset, 0);
+        // The finished segments are only deleted once the checkpoint doesn't point to them anymore
+        for (long segment = firstSegment; segment < readSegment; segment++) deleteSegment(segment);
+        int loaded = 0;
+        while (loaded < memoryCapacity && diskSize > 0) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length == NO_RECORD || length == SEGMENT_END) break;
+            readBuffer.position(readBuffer.position() + Integer.BYTES);
+            head.queue(decode(readBuffer, length - 1));
+            loaded++;
+            diskSize--;
+        }
+        if (loaded == 0) throw new StreamCorruptedException("Segment " + readSegment + " ended unexpectedly!");
+        batchSize = loaded;
+        headFromDisk = true;
+    }
+
+    private void spillTail() throws IOException {
+        while (!tail.isEmpty()) {
+            T object = tail.unqueue();
+            int length = codec.encodedSize(object);
+            int needed = 2 * Integer.BYTES + length;
+            if (writeBuffer == null || writeBuffer.remaining() < needed + Integer.BYTES) rollSegment(needed);
+            int start = writeBuffer.position();
+            writeBuffer.position(start + Integer.BYTES);
+            codec.encode(object, writeBuffer);
+            if (writeBuffer.position() - start - Integer.BYTES != length) throw new IllegalStateException(
+                    "The codec wrote " + (writeBuffer.position() - start - Integer.BYTES)
+                            + " bytes instead of " + length + "!"
+            );
+            // The length is written last, so a record that is only partly written is never read
+            writeBuffer.putInt(start, length + 1);
+            diskSize++;
+        }
+    }
+
+    /**
+     * Ends the current write segment and starts a new one with room for a record of the given size
+     */
+    private void rollSegment(int needed) throws IOException {
+        if (writeBuffer != null) {
+            writeBuffer.putInt(writeBuffer.position(), SEGMENT_END);
+            writeBuffer.force();
+            writeSegment++;
+        }
+        int size = Math.max(segmentSize, HEADER_SIZE + needed + Integer.BYTES);
+        try (FileChannel channel = FileChannel.open(segmentPath(writeSegment), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        writeBuffer.putInt(0, SEGMENT_MAGIC);
+        writeBuffer.position(HEADER_SIZE);
+    }
+
+    private @NotNull MappedByteBuffer mapSegment(long segment, FileChannel.MapMode mode) throws IOException {
+        Path path = segmentPath(segment);
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(mode, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE + Integer.BYTES || buffer.getInt(0) != SEGMENT_MAGIC) {
+                throw new StreamCorruptedException(path + " is not a queue segment!");
+            }
+            buffer.position(HEADER_SIZE);
+            return buffer;
+        }
+    }
+
+    private T decode(@NotNull ByteBuffer buffer, int length) throws IOException {
+        if (length < 0 || buffer.remaining() < length) throw new EOFException("A record of the segment is truncated!");
+        int limit = buffer.limit();
+        int end = buffer.position() + length;
+        buffer.limit(end);
+        T object = codec.decode(buffer);
+        buffer.limit(limit).position(end);
+        return object;
+    }
+
+    private void deleteSegment(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException ignored) {
+            // Some systems can't delete a file that is still mapped, so it will be deleted when reopening the queue
+        }
+    }
+
+    /**
+     * Restores the state saved by the last {@link SpillingQueue#close()} from the files of the directory
+     */
+    private void recover() throws IOException {
+        List<Long> segments = listSegments();
+        long checkpointSegment = segments.isEmpty() ? 0 : segments.get(0);
+        int checkpointOffset = HEADER_SIZE;
+        int skip = 0;
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            if (buffer.remaining() < Long.BYTES + 2 * Integer.BYTES) throw new StreamCorruptedException(
+                    "The checkpoint of the queue is truncated!"
+            );
+            checkpointSegment = buffer.getLong();
+            checkpointOffset = buffer.getInt();
+            skip = buffer.getInt();
+        }
+        for (long segment : segments) if (segment < checkpointSegment) deleteSegment(segment);
+        long firstKept = checkpointSegment;
+        segments.removeIf(segment -> segment < firstKept);
+        if (!segments.isEmpty() && segments.get(0) != checkpointSegment) {
+            // The segment of the checkpoint was fully read and deleted, so the reading starts at the next one
+            checkpointSegment = segments.get(0);
+            checkpointOffset = HEADER_SIZE;
+            skip = 0;
+        }
+
+        Path headFile = directory.resolve(HEAD_FILE);
+        if (Files.exists(headFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(headFile));
+            while (buffer.hasRemaining()) {
+                if (buffer.remaining() < Integer.BYTES) throw new EOFException("The head file is truncated!");
+                head.queue(decode(buffer, buffer.getInt()));
+            }
+            Files.delete(headFile);
+        }
+
+        readSegment = checkpointSegment;
+        writeSegment = segments.isEmpty() ? checkpointSegment : segments.get(segments.size() - 1);
+        if (segments.isEmpty()) return;
+        readBuffer = mapSegment(readSegment, FileChannel.MapMode.READ_ONLY);
+        readBuffer.position(checkpointOffset);
+        for (int i = 0; i < skip; i++) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length == NO_RECORD || length == SEGMENT_END) throw new StreamCorruptedException(
+                    "The checkpoint of the queue is past the end of its segment!"
+            );
+            readBuffer.position(readBuffer.position() + Integer.BYTES + length - 1);
+        }
+        // Counts the records left in the segments, and finds where the last segment ends
+        int position = readBuffer.position();
+        for (long segment : segments) {
+            MappedByteBuffer buffer = segment == readSegment ? readBuffer.duplicate()
+                    : mapSegment(segment, FileChannel.MapMode.READ_ONLY);
+            if (segment == readSegment) buffer.position(position);
+            int length;
+            while (buffer.remaining() >= Integer.BYTES
+                    && (length = buffer.getInt(buffer.position())) != NO_RECORD && length != SEGMENT_END) {
+                buffer.position(buffer.position() + Integer.BYTES + length - 1);
+                diskSize++;
+            }
+            if (segment == writeSegment && buffer.remaining() >= Integer.BYTES
+                    && buffer.getInt(buffer.position()) == NO_RECORD) {
+                writeBuffer = mapSegment(segment, FileChannel.MapMode.READ_WRITE);
+                writeBuffer.position(buffer.position());
+            }
+        }
+        if (writeBuffer == null) writeSegment++;
+        readBuffer.position(position);
+    }
+
+    private @NotNull List<Long> listSegments() throws IOException {
+        ArrayList<Long> segments = new ArrayList<>();
+        String glob = SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())
+                ));
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private void writeCheckpoint(long segment, int offset, int skip) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES);
+        buffer.putLong(segment).putInt(offset).putInt(skip).flip();
+        Path temporary = directory.resolve(CHECKPOINT_FILE + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        replace(temporary, CHECKPOINT_FILE);
+    }
+
+    private void writeHeadFile() throws IOException {
+        if (head.isEmpty()) return;
+        Path temporary = directory.resolve(HEAD_FILE + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            for (T object : head) {
+                int length = codec.encodedSize(object);
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                    if (buffer.capacity() < Integer.BYTES + length) {
+                        buffer = ByteBuffer.allocate(Integer.BYTES + length);
+                    }
+                }
+                buffer.putInt(length);
+                codec.encode(object, buffer);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        replace(temporary, HEAD_FILE);
+    }
+
+    /**
+     * Moves a fully written file over the file of the directory with the given name in a single step, so that a crash
+     * leaves either the old or the new file, never a truncated one
+     */
+    private void replace(@NotNull Path temporary, @NotNull String fileName) throws IOException {
+        Files.move(temporary, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Contract(pure = true)
+    private @NotNull Path segmentPath(long segment) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%016d", segment) + SEGMENT_SUFFIX);
+    }
+}
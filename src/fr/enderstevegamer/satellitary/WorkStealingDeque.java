@@ -0,0 +1,137 @@
+package fr.enderstevegamer.satellitary;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * <p>
+ *     A {@link Stack} owned by one thread, that other threads can steal objects from
+ * </p>
+ * <p>
+ *     The owner pushes and pops objects at the bottom, like with a {@link Stack}, without allocating once the
+ *     circular array holding the objects is big enough. The other threads steal the oldest objects from the top with
+ *     a single compare-and-set, so they only contend with the owner when one object is left
+ * </p>
+ * <p>
+ *     This is the deque described by Chase and Lev. {@link WorkStealingDeque#push(Object)} and
+ *     {@link WorkStealingDeque#pop()} must only be called by the owner thread
+ * </p>
+ * @param <T> The type of the elements contained in the {@link WorkStealingDeque}
+ */
+public class WorkStealingDeque<T> {
+    private static final VarHandle TOP;
+    private static final VarHandle BOTTOM;
+    private static final VarHandle OBJECTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final int DEFAULT_CAPACITY = 64;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOP = lookup.findVarHandle(WorkStealingDeque.class, "top", long.class);
+            BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private volatile long top;
+    @SuppressWarnings("unused")
+    private volatile long bottom;
+    private volatile Object[] objects;
+
+    /**
+     * A constructor creating an empty {@link WorkStealingDeque}
+     */
+    public WorkStealingDeque() {this.objects = new Object[DEFAULT_CAPACITY];}
+
+    /**
+     * Adds an object at the bottom of the {@link WorkStealingDeque}. Must only be called by the owner thread
+     * @param object The object to add
+     */
+    public void push(@NotNull T object) {
+        long bottom = (long) BOTTOM.getOpaque(this);
+        long top = (long) TOP.getAcquire(this);
+        Object[] objects = this.objects;
+        if (bottom - top > objects.length - 1) objects = grow(objects, top, bottom);
+        OBJECTS.setRelease(objects, (int) bottom & (objects.length - 1), object);
+        BOTTOM.setRelease(this, bottom + 1);
+    }
+
+    /**
+     * Removes the last pushed object from the bottom of the {@link WorkStealingDeque}. Must only be called by the
+     * owner thread
+     * @return The removed object, or {@code null} if the {@link WorkStealingDeque} is empty
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T pop() {
+        long bottom = (long) BOTTOM.getOpaque(this) - 1;
+        Object[] objects = this.objects;
+        BOTTOM.setVolatile(this, bottom);
+        long top = (long) TOP.getVolatile(this);
+        if (top > bottom) {
+            BOTTOM.setOpaque(this, bottom + 1);
+            return null;
+        }
+        int index = (int) bottom & (objects.length - 1);
+        T object = (T) OBJECTS.get(objects, index);
+        if (top == bottom) {
+            // This is the last object, so a thief may be trying to take it too
+            if (!TOP.compareAndSet(this, top, top + 1)) object = null;
+            BOTTOM.setOpaque(this, bottom + 1);
+            return object;
+        }
+        OBJECTS.setOpaque(objects, index, null);
+        return object;
+    }
+
+    /**
+     * Removes the oldest object from the top of the {@link WorkStealingDeque}. Can be called by any thread
+     * @return The removed object, or {@code null} if the {@link WorkStealingDeque} is empty
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T steal() {
+        while (true) {
+            long top = (long) TOP.getVolatile(this);
+            long bottom = (long) BOTTOM.getVolatile(this);
+            if (top >= bottom) return null;
+            Object[] objects = this.objects;
+            T object = (T) OBJECTS.getAcquire(objects, (int) top & (objects.length - 1));
+            // The slot isn't cleared, as the owner may already be reusing it once the top has moved
+            if (TOP.compareAndSet(this, top, top + 1)) return object;
+        }
+    }
+
+    /**
+     * Returns the number of objects in the {@link WorkStealingDeque}
+     * <p> The value may already be outdated when it is returned if other threads are stealing </p>
+     * @return The number of objects in the {@link WorkStealingDeque}
+     */
+    public int size() {
+        long size = (long) BOTTOM.getVolatile(this) - (long) TOP.getVolatile(this);
+        return (int) Math.max(0, size);
+    }
+
+    /**
+     * @return {@code true} if the {@link WorkStealingDeque} seems to contain no object, {@code false} otherwise
+     */
+    public boolean isEmpty() {return size() == 0;}
+
+    /**
+     * Copies the objects to an array twice as big, keeping them at the same positions modulo the new size
+     */
+    private Object @NotNull [] grow(Object @NotNull [] objects, long top, long bottom) {
+        if (objects.length >= 1 << 30) {
+            throw new IllegalStateException("The deque can't hold more than 2^30 objects!");
+        }
+        Object[] grown = new Object[objects.length << 1];
+        for (long i = top; i < bottom; i++) {
+            grown[(int) i & (grown.length - 1)] = objects[(int) i & (objects.length - 1)];
+        }
+        this.objects = grown;
+        return grown;
+    }
+}
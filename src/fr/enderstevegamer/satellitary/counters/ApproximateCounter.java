@@ -0,0 +1,151 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *     A counter using a fixed amount of memory, no matter how many different objects are counted
+ * </p>
+ * <p>
+ *     The counts are estimated by a {@link CountMinSketch}, and the most counted objects are tracked by a
+ *     {@link TopKTracker}. The estimates never underestimate the real counts
+ * </p>
+ * <p>
+ *     Unlike {@link Counter}, the counts can't be decremented, set or reset one by one
+ * </p>
+ * @param <T> The type of object to link the counter to
+ */
+public class ApproximateCounter<T> {
+    private final CountMinSketch<T> sketch;
+    private final TopKTracker<T> topK;
+    private final double startValue;
+    private final double increment;
+
+    /**
+     * This constructor takes the start value of the counter, its default increment and the size of its summaries
+     * @param startValue The start value of the counter. All the counts are offset by this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @param width The number of cells per row of the {@link CountMinSketch}
+     * @param depth The number of rows of the {@link CountMinSketch}
+     * @param trackedObjects The number of most counted objects to track
+     * @see ApproximateCounter#ApproximateCounter(int, int, int)
+     */
+    public ApproximateCounter(double startValue, double increment, int width, int depth, int trackedObjects) {
+        if (increment < 0) throw new IllegalArgumentException("The default increment can't be negative!");
+        this.sketch = new CountMinSketch<>(width, depth);
+        this.topK = new TopKTracker<>(trackedObjects);
+        this.startValue = startValue;
+        this.increment = increment;
+    }
+
+    /**
+     * This constructor takes the size of the summaries of the counter
+     * <p> The start value is set to 0 </p>
+     * <p> The default increment is set to 1 </p>
+     * @param width The number of cells per row of the {@link CountMinSketch}
+     * @param depth The number of rows of the {@link CountMinSketch}
+     * @param trackedObjects The number of most counted objects to track
+     * @see ApproximateCounter#ApproximateCounter(double, double, int, int, int)
+     */
+    public ApproximateCounter(int width, int depth, int trackedObjects) {this(0, 1, width, depth, trackedObjects);}
+
+    /**
+     * Creates a counter sized for the given error bounds
+     * @param epsilon The maximum overestimation of a count, as a fraction of the sum of all the increments
+     * @param delta The probability of a count exceeding this overestimation
+     * @param trackedObjects The number of most counted objects to track
+     * @return The {@link ApproximateCounter}
+     */
+    public static <T> @NotNull ApproximateCounter<T> withErrorBounds(double epsilon, double delta, int trackedObjects) {
+        CountMinSketch<T> sizing = CountMinSketch.withErrorBounds(epsilon, delta);
+        return new ApproximateCounter<>(sizing.getWidth(), sizing.getDepth(), trackedObjects);
+    }
+
+    /**
+     * Gets the estimated count of the object
+     * @param key The object to get the count from
+     * @return A count that is never lower than the real count of the object
+     * @see ApproximateCounter#getEstimate(Object)
+     */
+    public double getCount(T key) {return startValue + sketch.getCount(key);}
+
+    /**
+     * <p>
+     *     Gets the estimated count of the object with its error bound
+     * </p>
+     * <p>
+     *     If the object is tracked as one of the most counted objects, the error is guaranteed. Otherwise, the real
+     *     count is within the error with a probability of at least {@code 1 - e^-depth}
+     * </p>
+     * @param key The object to get the count from
+     * @return The {@link CountEstimate} of the object
+     */
+    public @NotNull CountEstimate<T> getEstimate(T key) {
+        double sketched = sketch.getCount(key);
+        CountEstimate<T> tracked = topK.getEstimate(key);
+        if (tracked != null) {
+            double count = Math.min(sketched, tracked.count());
+            return new CountEstimate<>(key, startValue + count, Math.max(0, count - tracked.lowerBound()));
+        }
+        return new CountEstimate<>(key, startValue + sketched, Math.min(sketched, sketch.getErrorBound()));
+    }
+
+    /**
+     * Increments the count of the object by the increment
+     * @param key The object which count to increment
+     * @param increment The amount to increment, which can't be negative
+     * @see ApproximateCounter#increment(Object)
+     */
+    public void increment(T key, double increment) {
+        sketch.increment(key, increment);
+        topK.increment(key, increment);
+    }
+
+    /**
+     * Increments the count of the object by the default increment value
+     * @param key The object which count to increment
+     * @see ApproximateCounter#increment(Object, double)
+     */
+    public void increment(T key) {increment(key, this.increment);}
+
+    /**
+     * Returns the most counted objects
+     * @param n The maximum number of objects to return, which should not exceed the number of tracked objects
+     * @return The {@link CountEstimate} of the {@code n} most counted objects, from the most to the least counted
+     */
+    public @NotNull List<CountEstimate<T>> topK(int n) {
+        List<CountEstimate<T>> tracked = topK.topK(n);
+        if (startValue == 0) return tracked;
+        ArrayList<CountEstimate<T>> estimates = new ArrayList<>(tracked.size());
+        for (CountEstimate<T> estimate : tracked) {
+            estimates.add(new CountEstimate<>(estimate.key(), startValue + estimate.count(), estimate.error()));
+        }
+        return estimates;
+    }
+
+    /**
+     * @return The sum of all the increments
+     */
+    @Contract(pure = true)
+    public double getTotalCount() {return this.sketch.getTotalCount();}
+
+    /**
+     * @return The overestimation that the count of an untracked object exceeds with a probability of at most
+     * {@code e^-depth}
+     */
+    @Contract(pure = true)
+    public double getErrorBound() {return this.sketch.getErrorBound();}
+
+    /**
+     * Resets all the values of the counter to the start value
+     */
+    public void reset() {
+        sketch.reset();
+        topK.reset();
+    }
+}
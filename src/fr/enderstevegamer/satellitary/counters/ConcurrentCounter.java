@@ -0,0 +1,244 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A thread-safe version of {@link Counter}
+ * <p> Each object is counted by its own {@link DoubleAdder}, which spreads the increments of a hot object over
+ * several cells instead of making all the threads fight over a single value. Reading a count never locks </p>
+ * <p> In buffered mode, each thread increments a private {@link Counter} instead, that is merged into the shared
+ * counts whenever a count is read, or when the buffer becomes too big. Increments are then nearly as cheap as
+ * with a {@link Counter}, but reads have to go through the buffers of all the threads </p>
+ * @param <T> The type of object to link the counter to
+ */
+public class ConcurrentCounter<T> {
+    /**
+     * The number of objects a thread buffer can hold before it is merged into the shared counts
+     */
+    private static final int MAX_BUFFERED_KEYS = 1024;
+
+    private final ConcurrentHashMap<Object, DoubleAdder> counts;
+    private final double startValue;
+    private final double increment;
+    private final boolean buffered;
+    private final Set<Buffer<T>> buffers;
+    private final ThreadLocal<Buffer<T>> threadBuffer;
+
+    /**
+     * This constructor takes the start value of the counter, its default increment and whether the increments are
+     * buffered per thread
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @param buffered {@code true} to buffer the increments of each thread until the next read, {@code false} to
+     *                 apply them directly to the shared counts
+     * @see ConcurrentCounter#ConcurrentCounter(double, double)
+     */
+    public ConcurrentCounter(double startValue, double increment, boolean buffered) {
+        this.counts = new ConcurrentHashMap<>();
+        this.startValue = startValue;
+        this.increment = increment;
+        this.buffered = buffered;
+        this.buffers = ConcurrentHashMap.newKeySet();
+        this.threadBuffer = ThreadLocal.withInitial(() -> {
+            Buffer<T> buffer = new Buffer<>(Thread.currentThread());
+            this.buffers.add(buffer);
+            return buffer;
+        });
+    }
+
+    /**
+     * This constructor takes the start value of the counter and its default increment
+     * <p> The increments are not buffered </p>
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @see ConcurrentCounter#ConcurrentCounter(double, double, boolean)
+     */
+    public ConcurrentCounter(double startValue, double increment) {this(startValue, increment, false);}
+
+    /**
+     * This constructor takes the start value of the counter
+     * <p> The default increment is set to 1 </p>
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @see ConcurrentCounter#ConcurrentCounter(double, double)
+     */
+    public ConcurrentCounter(double startValue) {this(startValue, 1);}
+
+    /**
+     * This constructor takes no argument
+     * <p> The start value is set to 0 </p>
+     * <p> The default increment is set to 1 </p>
+     * @see ConcurrentCounter#ConcurrentCounter(double)
+     */
+    public ConcurrentCounter() {this(0);}
+
+    /**
+     * @return {@code true} if the increments are buffered per thread, {@code false} otherwise
+     */
+    public boolean isBuffered() {return this.buffered;}
+
+    /**
+     * Gets the current count of the object
+     * <p> If the object does not have a count, the start value will be returned </p>
+     * <p> In buffered mode, the buffers of all the threads are merged before reading the count </p>
+     * @param key The object to get the count from
+     * @return The count associated with the object
+     */
+    public double getCount(T key) {
+        if (buffered) flush();
+        DoubleAdder adder = counts.get(CounterTables.maskNull(key));
+        return adder == null ? startValue : startValue + adder.sum();
+    }
+
+    /**
+     * Increments the count of the object by the increment
+     * @param key The object which count to increment
+     * @param increment The amount to increment
+     * @see ConcurrentCounter#increment(Object)
+     */
+    public void increment(T key, double increment) {
+        if (!buffered) {adder(CounterTables.maskNull(key)).add(increment); return;}
+        Buffer<T> buffer = threadBuffer.get();
+        synchronized (buffer) {
+            buffer.deltas.increment(key, increment);
+            if (buffer.deltas.size() >= MAX_BUFFERED_KEYS) drain(buffer);
+        }
+    }
+
+    /**
+     * Increments the count of the object by the default increment value
+     * @param key The object which count to increment
+     * @see ConcurrentCounter#increment(Object, double)
+     */
+    public void increment(T key) {increment(key, this.increment);}
+
+    /**
+     * Increments all the values by the specified increment
+     * <p> Only the objects that have a count when this method is called are incremented </p>
+     * @param increment The increment to add to all values
+     * @see ConcurrentCounter#incrementAll()
+     */
+    public void incrementAll(double increment) {
+        if (buffered) flush();
+        for (DoubleAdder adder : counts.values()) adder.add(increment);
+    }
+
+    /**
+     * Increment all the value by the default increment
+     * @see ConcurrentCounter#incrementAll(double)
+     */
+    public void incrementAll() {incrementAll(this.increment);}
+
+    /**
+     * Resets all the values of the counter to the start value
+     * <p> The increments that are done concurrently with this method may or may not be kept </p>
+     */
+    public void reset() {
+        for (Buffer<T> buffer : buffers) {
+            synchronized (buffer) {buffer.deltas.reset();}
+        }
+        counts.clear();
+    }
+
+    /**
+     * Reset the specified object counter to the start value
+     * @param key The object which counter to reset
+     */
+    public void resetValue(T key) {
+        if (buffered) flush();
+        counts.remove(CounterTables.maskNull(key));
+    }
+
+    /**
+     * Sets the values of this counter to the specified value
+     * <p> The increments of this object that are done concurrently with this method may or may not be kept </p>
+     * @param key The object which counter to change the value
+     * @param count The value to set the counter to
+     */
+    public void setValue(T key, double count) {
+        if (buffered) flush();
+        DoubleAdder adder = new DoubleAdder();
+        adder.add(count - startValue);
+        counts.put(CounterTables.maskNull(key), adder);
+    }
+
+    /**
+     * Merges the buffers of all the threads into the shared counts
+     * <p> This is done automatically by the reading methods, and does nothing if the counter is not buffered </p>
+     */
+    public void flush() {
+        for (Buffer<T> buffer : buffers) {
+            synchronized (buffer) {drain(buffer);}
+            if (!buffer.owner.isAlive()) buffers.remove(buffer);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns a copy of the current counts
+     * </p>
+     * <p>
+     *     Each count is read once, so the returned {@link Counter} does not change while other threads keep
+     *     incrementing this counter
+     * </p>
+     * @return A {@link Counter} holding the current counts
+     */
+    public @NotNull Counter<T> snapshot() {
+        if (buffered) flush();
+        Counter<T> snapshot = new Counter<>(startValue, increment, counts.size());
+        for (Map.Entry<Object, DoubleAdder> entry : counts.entrySet()) {
+            snapshot.setValue(CounterTables.unmaskNull(entry.getKey()), startValue + entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {return snapshot().toString();}
+
+    /**
+     * Applies the provided consumer to all the values of the counter
+     * <p> The consumer takes each values of type T as a first argument, and the count
+     * associated the the value as a second argument</p>
+     * <p> The values are taken from a {@link ConcurrentCounter#snapshot()}, so the consumer sees consistent counts
+     * even if other threads are incrementing the counter </p>
+     * @param consumer The {@link ObjDoubleConsumer} of type T
+     */
+    public void forEach(ObjDoubleConsumer<? super T> consumer) {snapshot().forEach(consumer);}
+
+    private DoubleAdder adder(Object masked) {
+        DoubleAdder adder = counts.get(masked);
+        return adder != null ? adder : counts.computeIfAbsent(masked, k -> new DoubleAdder());
+    }
+
+    /**
+     * Moves the content of a buffer into the shared counts. The lock of the buffer must be held
+     */
+    private void drain(@NotNull Buffer<T> buffer) {
+        if (buffer.deltas.size() == 0) return;
+        buffer.deltas.forEach((key, delta) -> adder(CounterTables.maskNull(key)).add(delta));
+        buffer.deltas.reset();
+    }
+
+    /**
+     * The increments done by a thread that have not been merged into the shared counts yet
+     */
+    private static final class Buffer<T> {
+        private final Thread owner;
+        private final Counter<T> deltas;
+
+        private Buffer(Thread owner) {
+            this.owner = owner;
+            this.deltas = new Counter<>(0, 0);
+        }
+    }
+}
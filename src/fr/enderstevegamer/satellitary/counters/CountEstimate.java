@@ -0,0 +1,25 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The approximate count of an object
+ * <p> The real count of the object is between {@code count - error} and {@code count} </p>
+ * @param key The counted object
+ * @param count The estimated count, which is never lower than the real count
+ * @param error The maximum amount by which the count may overestimate the real count
+ * @param <T> The type of the counted object
+ */
+public record CountEstimate<T>(T key, double count, double error) {
+    /**
+     * @return The smallest value the real count can have
+     */
+    @Contract(pure = true)
+    public double lowerBound() {return this.count - this.error;}
+
+    @Override
+    public @NotNull String toString() {
+        return key + ": " + count + " (+/- " + error + ")";
+    }
+}
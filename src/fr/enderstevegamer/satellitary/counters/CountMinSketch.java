@@ -0,0 +1,136 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     A fixed size summary estimating how many times each object was counted
+ * </p>
+ * <p>
+ *     Each object is counted in one cell of each row. The estimate of an object is the smallest of its cells,
+ *     so it never underestimates the real count, and with a probability of at least {@code 1 - e^-depth} it
+ *     overestimates it by no more than {@code e / width} times the total count
+ * </p>
+ * <p>
+ *     The memory used only depends on the width and the depth, not on the number of different objects counted
+ * </p>
+ * @param <T> The type of the counted objects
+ */
+public class CountMinSketch<T> {
+    private final double[] cells;
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private double totalCount;
+
+    /**
+     * Creates an empty {@link CountMinSketch}
+     * @param width The number of cells per row, rounded up to a power of two
+     * @param depth The number of rows
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) throw new IllegalArgumentException("The width and the depth must be positive!");
+        if (width > 1 << 30) throw new IllegalArgumentException("The width can't be greater than 2^30!");
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        if ((long) this.width * depth > Integer.MAX_VALUE) throw new IllegalArgumentException("The sketch is too big!");
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.cells = new double[this.width * depth];
+    }
+
+    /**
+     * Creates an empty {@link CountMinSketch} sized for the given error bounds
+     * @param epsilon The maximum overestimation, as a fraction of the total count
+     * @param delta The probability of an estimate exceeding this overestimation
+     * @return The {@link CountMinSketch}
+     */
+    public static <T> CountMinSketch<T> withErrorBounds(double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) throw new IllegalArgumentException(
+                "epsilon must be positive and delta must be between 0 and 1!"
+        );
+        return new CountMinSketch<>((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    /**
+     * @return The number of cells per row
+     */
+    @Contract(pure = true)
+    public int getWidth() {return this.width;}
+
+    /**
+     * @return The number of rows
+     */
+    @Contract(pure = true)
+    public int getDepth() {return this.depth;}
+
+    /**
+     * @return The sum of all the increments
+     */
+    @Contract(pure = true)
+    public double getTotalCount() {return this.totalCount;}
+
+    /**
+     * @return The overestimation that an estimate exceeds with a probability of at most {@code e^-depth}
+     */
+    @Contract(pure = true)
+    public double getErrorBound() {return Math.E / this.width * this.totalCount;}
+
+    /**
+     * <p>
+     *     Increments the count of the object
+     * </p>
+     * <p>
+     *     Only the cells that are below the new estimate are raised, which keeps the estimates of the other objects
+     *     as low as possible
+     * </p>
+     * @param key The object which count to increment
+     * @param increment The amount to increment, which can't be negative
+     * @return The new estimate of the object
+     */
+    public double increment(T key, double increment) {
+        if (increment < 0) throw new IllegalArgumentException("Can't decrement a count-min sketch!");
+        int hash = CounterTables.hash(CounterTables.maskNull(key));
+        int step = secondHash(hash);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0, h = hash; row < depth; row++, h += step) estimate = Math.min(estimate, cells[row * width + (h & mask)]);
+        double target = estimate + increment;
+        for (int row = 0, h = hash; row < depth; row++, h += step) {
+            int cell = row * width + (h & mask);
+            if (cells[cell] < target) cells[cell] = target;
+        }
+        totalCount += increment;
+        return target;
+    }
+
+    /**
+     * Returns the estimated count of the object
+     * @param key The object to get the count from
+     * @return A count that is never lower than the real count of the object
+     */
+    public double getCount(T key) {
+        int hash = CounterTables.hash(CounterTables.maskNull(key));
+        int step = secondHash(hash);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0, h = hash; row < depth; row++, h += step) estimate = Math.min(estimate, cells[row * width + (h & mask)]);
+        return estimate;
+    }
+
+    /**
+     * Resets all the counts to 0
+     */
+    public void reset() {
+        Arrays.fill(cells, 0);
+        totalCount = 0;
+    }
+
+    /**
+     * Derives the step between the cells of two consecutive rows, which is odd so that it visits every column
+     */
+    @Contract(pure = true)
+    private static int secondHash(int hash) {
+        int h = hash * 0x85EBCA6B;
+        return (h ^ (h >>> 13)) | 1;
+    }
+}
@@ -1,34 +1,67 @@
 package fr.enderstevegamer.satellitary.counters;
 
 import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.function.BiConsumer;
+import java.util.Arrays;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * A class used to link objects to a counter
+ * <p> The counts are stored in an open addressing table, with the objects and their {@code double} counts kept in
+ * parallel arrays, so reading or incrementing a count never allocates </p>
+ * <p> The counts are stored relatively to a shared scale and offset, so that {@link Counter#incrementAll(double)}
+ * and {@link Counter#scaleAll(double)} don't have to go through all the counts </p>
  * @param <T> The type of object to link the counter to
+ * @see LongCounter
  */
 public class Counter <T> {
-    private final HashMap<T, Double> counts;
+    private Object[] keys;
+    private double[] counts;
+    private int size;
+    private int threshold;
+    // The real count of an object is its stored count times the scale, plus the offset
+    private double scale;
+    private double offset;
     private final double startValue;
     private final double increment;
 
+    // The bounds of the scale outside which it is applied to the stored counts, to keep their precision
+    private static final double MIN_SCALE = 0x1p-256;
+    private static final double MAX_SCALE = 0x1p256;
+
     /**
-     * This constructor takes the start value of the counter and its default increment
+     * This constructor takes the start value of the counter, its default increment and the number of objects it is
+     * expected to count
      * @param startValue The start value of the counter. All the counters that are incremented or their values read
      *                   are defaulted to this value
      * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
      *                  increment, this value is used instead
-     * @see Counter#Counter(double)
-     * @see Counter#Counter()
+     * @param expectedSize The number of objects that can be counted before the counter has to grow
+     * @see Counter#Counter(double, double)
      */
-    public Counter(double startValue, double increment) {
-        counts = new HashMap<>();
+    public Counter(double startValue, double increment, int expectedSize) {
+        int capacity = CounterTables.capacityFor(expectedSize);
+        this.keys = new Object[capacity];
+        this.counts = new double[capacity];
+        this.threshold = CounterTables.thresholdOf(capacity);
+        this.scale = 1;
+        this.offset = 0;
         this.startValue = startValue;
         this.increment = increment;
     }
 
+    /**
+     * This constructor takes the start value of the counter and its default increment
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @see Counter#Counter(double)
+     * @see Counter#Counter()
+     */
+    public Counter(double startValue, double increment) {this(startValue, increment, 0);}
+
     /**
      * This constructor takes the start value of the counter
      * <p> The default increment is set to 1 </p>
@@ -55,77 +88,163 @@ public class Counter <T> {
      * @return The count associated with the object
      */
     public double getCount(T key) {
-        if (!counts.containsKey(key)) return startValue;
-        return counts.get(key);
+        int slot = findSlot(CounterTables.maskNull(key));
+        return slot < 0 ? startValue : counts[slot] * scale + offset;
     }
 
     /**
      * Increments the count of the object by the increment
+     * <p> The object is looked up only once, whether it already had a count or not </p>
      * @param key The object which count to increment
      * @param increment The amount to increment
-     * @see Counter#increment(Object) 
+     * @see Counter#increment(Object)
      */
-    public void increment(T key, double increment) {
-        if (!counts.containsKey(key)) {counts.put(key, startValue + increment); return;}
-        counts.put(key, counts.get(key) + increment);
+    public void increment(T key, double increment) {incrementMasked(CounterTables.maskNull(key), increment);}
+
+    private void incrementMasked(Object masked, double increment) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) {counts[slot] += increment / scale; return;}
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, masked, (startValue + increment - offset) / scale);
     }
 
     /**
      * Increments the count of the object by the default increment value
      * @param key The object which count to increment
-     * @see Counter#increment(Object, double) 
+     * @see Counter#increment(Object, double)
      */
     public void increment(T key) {increment(key, this.increment);}
 
     /**
      * Increments all the values by the specified increment
+     * <p> This takes a constant time, no matter how many objects have a count </p>
      * @param increment The increment to add to all values
-     * @see Counter#incrementAll() 
+     * @see Counter#incrementAll()
      */
-    public void incrementAll(double increment) {
-        counts.forEach((k, d) -> increment(k, increment));
-    }
+    public void incrementAll(double increment) {this.offset += increment;}
 
     /**
      * Increment all the value by the default increment
-     * @see Counter#incrementAll(double) 
+     * @see Counter#incrementAll(double)
      */
-    public void incrementAll() {
-        counts.forEach((k, d) -> increment(k));
+    public void incrementAll() {incrementAll(this.increment);}
+
+    /**
+     * Multiplies all the values by the specified factor
+     * <p> This takes a constant time, no matter how many objects have a count </p>
+     * @param factor The factor to multiply all the values by
+     */
+    public void scaleAll(double factor) {
+        if (!Double.isFinite(factor)) throw new IllegalArgumentException("Can't scale the counts by " + factor + "!");
+        if (factor == 0) {
+            Arrays.fill(counts, 0);
+            this.scale = 1;
+            this.offset = 0;
+            return;
+        }
+        this.scale *= factor;
+        this.offset *= factor;
+        double magnitude = Math.abs(this.scale);
+        if (magnitude < MIN_SCALE || magnitude > MAX_SCALE) applyScale();
     }
 
     /**
      * Resets all the values of the counter to the start value
+     * <p> The table keeps its capacity, so the counter can be refilled without growing again </p>
      */
-    public void reset() {counts.clear();}
+    public void reset() {
+        Arrays.fill(keys, null);
+        size = 0;
+        scale = 1;
+        offset = 0;
+    }
 
     /**
      * Reset the specified object counter to the start value
      * @param key The object which counter to reset
      */
-    @Contract(pure = true)
-    public void resetValue(T key) {counts.remove(key);}
+    public void resetValue(T key) {
+        int slot = findSlot(CounterTables.maskNull(key));
+        if (slot >= 0) delete(slot);
+    }
 
     /**
      * Sets the values of this counter to the specified value
      * @param key The object which counter to change the value
      * @param count The value to set the counter to
      */
-    @Contract(pure = true)
-    public void setValue(T key, double count) {counts.put(key, count);}
+    public void setValue(T key, double count) {
+        Object masked = CounterTables.maskNull(key);
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) {counts[slot] = (count - offset) / scale; return;}
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, masked, (count - offset) / scale);
+    }
 
     /**
      * Set the value of this counter for this object to the start value
      * @param key The object to initialize the value
      */
-    @Contract(pure = true)
     public void setValue(T key) {setValue(key, startValue);}
 
+    /**
+     * <p>
+     *     Adds the counts of another counter to this one
+     * </p>
+     * <p>
+     *     Each object of the other counter is incremented by the difference between its count and the start value
+     *     of the other counter, so merging counters that share the same start value sums their increments
+     * </p>
+     * @param other The {@link Counter} to merge into this one
+     */
+    public void merge(@NotNull Counter<? extends T> other) {
+        if (other == this) throw new IllegalArgumentException("Can't merge a counter into itself!");
+        int needed = this.size + other.size;
+        if (needed > threshold) rehash(CounterTables.capacityFor(needed));
+        Object[] otherKeys = other.keys;
+        double[] otherCounts = other.counts;
+        for (int i = 0; i < otherKeys.length; i++) {
+            Object key = otherKeys[i];
+            if (key == null) continue;
+            incrementMasked(key, otherCounts[i] * other.scale + other.offset - other.startValue);
+        }
+    }
+
+    /**
+     * @return The number of objects that currently have a count
+     */
+    @Contract(pure = true)
+    public int size() {return this.size;}
+
+    /**
+     * @return The value of the objects that don't have a count
+     */
+    @Contract(pure = true)
+    public double getStartValue() {return this.startValue;}
+
+    /**
+     * @return The increment used when incrementing without specifying it
+     */
+    @Contract(pure = true)
+    public double getIncrement() {return this.increment;}
+
     @Override
     public String toString() {
         StringBuilder string = new StringBuilder();
-        for (T element : counts.keySet()) {
-            string.append(element.toString()).append(": ").append(counts.get(element)).append("\n");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+            string.append(CounterTables.<T>unmaskNull(keys[i])).append(": ")
+                    .append(counts[i] * scale + offset).append("\n");
         }
         return string.toString();
     }
@@ -134,11 +253,102 @@ public class Counter <T> {
      * Applies the provided consumer to all the values of the counter
      * <p> The consumer takes each values of type T as a first argument, and the count
      * associated the the value as a second argument</p>
-     * @param consumer The {@link BiConsumer} of type T and Double
+     * <p> The counts are given as primitive {@code double}, so no boxing happens while iterating </p>
+     * @param consumer The {@link ObjDoubleConsumer} of type T
+     */
+    public void forEach(ObjDoubleConsumer<? super T> consumer) {
+        Object[] keys = this.keys;
+        double[] counts = this.counts;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) consumer.accept(CounterTables.unmaskNull(keys[i]), counts[i] * scale + offset);
+        }
+    }
+
+    /**
+     * @return The number of slots of the table, for the classes going through it with
+     * {@link Counter#keyAt(int)} and {@link Counter#countAt(int)}
+     */
+    int capacity() {return this.keys.length;}
+
+    /**
+     * @return The object of the slot, or {@code null} if the slot is empty. A {@code null} object is given as
+     * {@link CounterTables#NULL_KEY}
      */
-    public void forEach(BiConsumer<? super T, ? super Double> consumer) {
-        for (T element : counts.keySet()) {
-            consumer.accept(element, counts.get(element));
+    Object keyAt(int slot) {return this.keys[slot];}
+
+    /**
+     * @return The count of the object of the slot
+     */
+    double countAt(int slot) {return this.counts[slot] * scale + offset;}
+
+    /**
+     * Applies the scale and the offset to all the stored counts, and sets them back to their neutral values
+     */
+    private void applyScale() {
+        Object[] keys = this.keys;
+        double[] counts = this.counts;
+        for (int i = 0; i < keys.length; i++) if (keys[i] != null) counts[i] = counts[i] * scale + offset;
+        this.scale = 1;
+        this.offset = 0;
+    }
+
+    private int findSlot(Object masked) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int slot, Object masked, double count) {
+        keys[slot] = masked;
+        counts[slot] = count;
+        if (++size > threshold) rehash(keys.length << 1);
+    }
+
+    /**
+     * Removes the key at the given slot, shifting back the following keys of its probe sequence so that no
+     * tombstone is needed
+     */
+    private void delete(int slot) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        Object current;
+        while ((current = keys[next]) != null) {
+            int home = CounterTables.hash(current) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = current;
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = this.keys;
+        double[] oldCounts = this.counts;
+        Object[] keys = new Object[capacity];
+        double[] counts = new double[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key == null) continue;
+            int slot = CounterTables.hash(key) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            counts[slot] = oldCounts[i];
         }
+        this.keys = keys;
+        this.counts = counts;
+        this.threshold = CounterTables.thresholdOf(capacity);
     }
 }
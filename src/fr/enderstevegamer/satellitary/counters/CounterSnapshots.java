@@ -0,0 +1,273 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import fr.enderstevegamer.satellitary.io.Codec;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *     Methods saving the state of a {@link Counter} in a compact binary format, and loading it back
+ * </p>
+ * <p>
+ *     A snapshot starts with a header holding the start value, the default increment and the number of objects of
+ *     the counter. Each object follows, as the size of its key, the key encoded by a {@link Codec}, and its count.
+ *     A {@code null} key is stored as the size {@value CounterSnapshots#NULL_KEY}, without any encoded key, so codecs
+ *     never see it
+ * </p>
+ * <p>
+ *     Snapshots are read entry by entry and merged straight into the target {@link Counter}, so loading many of
+ *     them costs about as much as reading the files
+ * </p>
+ */
+public final class CounterSnapshots {
+    private static final int MAGIC = 0x53434E54;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 2 * Double.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NULL_KEY = -1;
+    // The size of the regions of a file mapped at once, which leaves room for the entries crossing two regions
+    private static final long MAPPED_REGION_SIZE = 1L << 30;
+
+    @Contract(pure = true)
+    private CounterSnapshots() {}
+
+    /**
+     * Writes a snapshot of the counter to the channel
+     * @param counter The {@link Counter} to save
+     * @param codec The {@link Codec} encoding the objects of the counter
+     * @param channel The {@link WritableByteChannel} to write the snapshot to
+     * @throws IOException If the channel can't be written to
+     */
+    public static <T> void write(@NotNull Counter<T> counter, @NotNull Codec<? super T> codec,
+                                 @NotNull WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putDouble(counter.getStartValue()).putDouble(counter.getIncrement())
+                .putInt(counter.size());
+        for (int slot = 0; slot < counter.capacity(); slot++) {
+            Object masked = counter.keyAt(slot);
+            if (masked == null) continue;
+            T key = CounterTables.unmaskNull(masked);
+            int keySize = key == null ? 0 : codec.encodedSize(key);
+            int entrySize = Integer.BYTES + keySize + Double.BYTES;
+            if (buffer.remaining() < entrySize) {
+                flush(buffer, channel);
+                if (buffer.capacity() < entrySize) buffer = ByteBuffer.allocate(entrySize);
+            }
+            if (key == null) {
+                buffer.putInt(NULL_KEY).putDouble(counter.countAt(slot));
+                continue;
+            }
+            buffer.putInt(keySize);
+            int start = buffer.position();
+            codec.encode(key, buffer);
+            if (buffer.position() - start != keySize) throw new IllegalStateException(
+                    "The codec wrote " + (buffer.position() - start) + " bytes instead of " + keySize + "!"
+            );
+            buffer.putDouble(counter.countAt(slot));
+        }
+        flush(buffer, channel);
+    }
+
+    /**
+     * Writes a snapshot of the counter to a file, replacing it if it exists
+     * @param counter The {@link Counter} to save
+     * @param codec The {@link Codec} encoding the objects of the counter
+     * @param path The {@link Path} of the file
+     * @throws IOException If the file can't be written
+     */
+    public static <T> void write(@NotNull Counter<T> counter, @NotNull Codec<? super T> codec,
+                                 @NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(counter, codec, channel);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the channel
+     * @param codec The {@link Codec} decoding the objects of the counter
+     * @param channel The {@link ReadableByteChannel} to read the snapshot from
+     * @return A {@link Counter} with the state saved in the snapshot
+     * @throws IOException If the channel can't be read or doesn't hold a valid snapshot
+     */
+    public static <T> @NotNull Counter<T> read(@NotNull Codec<? extends T> codec,
+                                               @NotNull ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.limit(0);
+        buffer = ensure(buffer, HEADER_SIZE, channel);
+        Header header = readHeader(buffer);
+        Counter<T> counter = new Counter<>(header.startValue, header.increment, header.size);
+        readEntries(counter, header, codec, buffer, channel, false);
+        return counter;
+    }
+
+    /**
+     * Reads a snapshot from the channel and adds its counts to the counter
+     * @param counter The {@link Counter} to merge the snapshot into
+     * @param codec The {@link Codec} decoding the objects of the counter
+     * @param channel The {@link ReadableByteChannel} to read the snapshot from
+     * @throws IOException If the channel can't be read or doesn't hold a valid snapshot
+     * @see Counter#merge(Counter)
+     */
+    public static <T> void merge(@NotNull Counter<T> counter, @NotNull Codec<? extends T> codec,
+                                 @NotNull ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.limit(0);
+        buffer = ensure(buffer, HEADER_SIZE, channel);
+        readEntries(counter, readHeader(buffer), codec, buffer, channel, true);
+    }
+
+    /**
+     * Maps a snapshot file in memory and reads it
+     * @param codec The {@link Codec} decoding the objects of the counter
+     * @param path The {@link Path} of the snapshot file
+     * @return A {@link Counter} with the state saved in the snapshot
+     * @throws IOException If the file can't be read or doesn't hold a valid snapshot
+     */
+    public static <T> @NotNull Counter<T> map(@NotNull Codec<? extends T> codec,
+                                              @NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), MAPPED_REGION_SIZE));
+            if (region.remaining() < HEADER_SIZE) throw new EOFException("The snapshot is truncated!");
+            Header header = readHeader(region);
+            Counter<T> counter = new Counter<>(header.startValue, header.increment, header.size);
+            mapEntries(counter, header, codec, channel, region, false);
+            return counter;
+        }
+    }
+
+    /**
+     * Maps a snapshot file in memory and adds its counts to the counter
+     * @param counter The {@link Counter} to merge the snapshot into
+     * @param codec The {@link Codec} decoding the objects of the counter
+     * @param path The {@link Path} of the snapshot file
+     * @throws IOException If the file can't be read or doesn't hold a valid snapshot
+     * @see Counter#merge(Counter)
+     */
+    public static <T> void mergeMapped(@NotNull Counter<T> counter, @NotNull Codec<? extends T> codec,
+                                       @NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), MAPPED_REGION_SIZE));
+            if (region.remaining() < HEADER_SIZE) throw new EOFException("The snapshot is truncated!");
+            mapEntries(counter, readHeader(region), codec, channel, region, true);
+        }
+    }
+
+    private static @NotNull Header readHeader(@NotNull ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) throw new StreamCorruptedException("This is not a counter snapshot!");
+        int version = buffer.getInt();
+        if (version != VERSION) throw new StreamCorruptedException("Unsupported snapshot version " + version + "!");
+        double startValue = buffer.getDouble();
+        double increment = buffer.getDouble();
+        int size = buffer.getInt();
+        if (size < 0) throw new StreamCorruptedException("Negative number of objects in the snapshot!");
+        return new Header(startValue, increment, size);
+    }
+
+    private static <T> void readEntries(@NotNull Counter<T> counter, @NotNull Header header,
+                                        @NotNull Codec<? extends T> codec, @NotNull ByteBuffer buffer,
+                                        @NotNull ReadableByteChannel channel, boolean merge) throws IOException {
+        for (int i = 0; i < header.size; i++) {
+            buffer = ensure(buffer, Integer.BYTES, channel);
+            int keySize = buffer.getInt();
+            if (keySize < NULL_KEY) throw new StreamCorruptedException("Negative key size in the snapshot!");
+            buffer = ensure(buffer, storedSize(keySize) + Double.BYTES, channel);
+            restore(counter, header, decodeKey(codec, buffer, keySize), buffer.getDouble(), merge);
+        }
+    }
+
+    private static <T> void mapEntries(@NotNull Counter<T> counter, @NotNull Header header,
+                                       @NotNull Codec<? extends T> codec, @NotNull FileChannel channel,
+                                       @NotNull MappedByteBuffer region, boolean merge) throws IOException {
+        long regionStart = 0;
+        for (int i = 0; i < header.size; i++) {
+            if (region.remaining() < Integer.BYTES
+                    || region.remaining()
+                    < Integer.BYTES + storedSize(region.getInt(region.position())) + Double.BYTES) {
+                // The entry crosses the end of the mapped region, so the next region starts with it
+                regionStart += region.position();
+                long length = Math.min(channel.size() - regionStart, MAPPED_REGION_SIZE);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, length);
+                if (region.remaining() < Integer.BYTES) throw new EOFException("The snapshot is truncated!");
+            }
+            int keySize = region.getInt();
+            if (keySize < NULL_KEY) throw new StreamCorruptedException("Negative key size in the snapshot!");
+            if (region.remaining() < storedSize(keySize) + Double.BYTES) {
+                throw new EOFException("The snapshot is truncated!");
+            }
+            restore(counter, header, decodeKey(codec, region, keySize), region.getDouble(), merge);
+        }
+    }
+
+    /**
+     * Sets the saved count when reading a snapshot, so that the counter holds exactly the saved values, or adds its
+     * difference with the saved start value when merging the snapshot into another counter
+     */
+    private static <T> void restore(@NotNull Counter<T> counter, @NotNull Header header, T key, double count,
+                                    boolean merge) {
+        if (merge) counter.increment(key, count - header.startValue);
+        else counter.setValue(key, count);
+    }
+
+    /**
+     * @return The number of bytes the key takes in the snapshot
+     */
+    @Contract(pure = true)
+    private static int storedSize(int keySize) {return keySize == NULL_KEY ? 0 : keySize;}
+
+    /**
+     * Decodes the key at the position of the buffer, and moves the position after it
+     */
+    private static <T> T decodeKey(@NotNull Codec<? extends T> codec, @NotNull ByteBuffer buffer, int keySize) {
+        if (keySize == NULL_KEY) return null;
+        int limit = buffer.limit();
+        int end = buffer.position() + keySize;
+        buffer.limit(end);
+        T key = codec.decode(buffer);
+        buffer.limit(limit).position(end);
+        return key;
+    }
+
+    /**
+     * Makes sure that the buffer has at least the given number of bytes left to read, reading from the channel
+     * and growing the buffer if needed
+     * @return The buffer holding the bytes, which is a new one if it had to grow
+     */
+    private static @NotNull ByteBuffer ensure(@NotNull ByteBuffer buffer, int bytes,
+                                              @NotNull ReadableByteChannel channel) throws IOException {
+        if (buffer.remaining() >= bytes) return buffer;
+        if (buffer.capacity() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(bytes);
+            bigger.put(buffer).flip();
+            buffer = bigger;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) throw new EOFException("The snapshot is truncated!");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void flush(@NotNull ByteBuffer buffer, @NotNull WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private record Header(double startValue, double increment, int size) {}
+}
@@ -0,0 +1,75 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+
+/**
+ * Helpers shared by the open addressing tables of the counters
+ */
+final class CounterTables {
+    /**
+     * The key stored in the tables in place of {@code null}, so an empty slot can be told apart from a null key
+     */
+    static final Object NULL_KEY = new Object();
+
+    /**
+     * The default number of slots of a table
+     */
+    static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The maximum load of a table before it is grown, as a fraction of its capacity
+     */
+    static final float LOAD_FACTOR = 0.75f;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    @Contract(pure = true)
+    private CounterTables() {}
+
+    /**
+     * Replaces a {@code null} key by {@link CounterTables#NULL_KEY}
+     * @param key The key to mask
+     * @return The key to store in the table
+     */
+    @Contract(pure = true)
+    static Object maskNull(Object key) {return key == null ? NULL_KEY : key;}
+
+    /**
+     * Replaces {@link CounterTables#NULL_KEY} by {@code null}
+     * @param key The key stored in the table
+     * @return The key as given by the user
+     */
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    static <T> T unmaskNull(Object key) {return key == NULL_KEY ? null : (T) key;}
+
+    /**
+     * Spreads the hash code of a key so that linear probing stays efficient on poorly distributed hash codes
+     * @param key The masked key
+     * @return The spread hash of the key
+     */
+    static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the capacity of a table able to hold the given number of keys without being grown
+     * @param expectedSize The number of keys the table should hold
+     * @return A power of two capacity
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("The expected size can't be negative!");
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed >= MAX_CAPACITY) return MAX_CAPACITY;
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * Returns the number of keys a table of the given capacity can hold before being grown
+     * @param capacity The capacity of the table
+     * @return The maximum number of keys
+     */
+    @Contract(pure = true)
+    static int thresholdOf(int capacity) {return capacity == MAX_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);}
+}
@@ -0,0 +1,147 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import fr.enderstevegamer.satellitary.timers.Timer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * <p>
+ *     A counter which counts decay exponentially with the time measured by a {@link Timer}
+ * </p>
+ * <p>
+ *     Each count is halved every half-life, so it tracks the recent activity of its object. The decay is applied
+ *     with {@link Counter#scaleAll(double)}, so it doesn't have to go through all the counts
+ * </p>
+ * @param <T> The type of object to link the counter to
+ * @see SlidingWindowCounter
+ */
+public class DecayingCounter<T> {
+    private final Counter<T> counts;
+    private final Timer timer;
+    private final double halfLife;
+    private final double increment;
+    private double lastDecay;
+
+    /**
+     * This constructor takes the half-life of the counts, the {@link Timer} driving their decay and the default
+     * increment
+     * @param halfLife The time after which a count is halved, in seconds
+     * @param timer The {@link Timer} measuring the time
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @see DecayingCounter#DecayingCounter(double, Timer)
+     */
+    public DecayingCounter(double halfLife, @NotNull Timer timer, double increment) {
+        if (!(halfLife > 0)) throw new IllegalArgumentException("The half-life must be positive!");
+        this.counts = new Counter<>(0, increment);
+        this.timer = timer;
+        this.halfLife = halfLife;
+        this.increment = increment;
+        this.lastDecay = timer.getElapsedTime();
+    }
+
+    /**
+     * This constructor takes the half-life of the counts and the {@link Timer} driving their decay
+     * <p> The default increment is set to 1 </p>
+     * @param halfLife The time after which a count is halved, in seconds
+     * @param timer The {@link Timer} measuring the time
+     * @see DecayingCounter#DecayingCounter(double, Timer, double)
+     */
+    public DecayingCounter(double halfLife, @NotNull Timer timer) {this(halfLife, timer, 1);}
+
+    /**
+     * @return The time after which a count is halved, in seconds
+     */
+    @Contract(pure = true)
+    public double getHalfLife() {return this.halfLife;}
+
+    /**
+     * Gets the current decayed count of the object
+     * @param key The object to get the count from
+     * @return The count associated with the object, or 0 if it was never counted
+     */
+    public double getCount(T key) {
+        decay();
+        return counts.getCount(key);
+    }
+
+    /**
+     * <p>
+     *     Gets the recent rate of increments of the object, in increments per second
+     * </p>
+     * <p>
+     *     The rate is the decayed count divided by the mean lifetime of an increment, which is
+     *     {@code halfLife / ln(2)}
+     * </p>
+     * @param key The object to get the rate from
+     * @return The rate of increments of the object
+     */
+    public double getRate(T key) {return getCount(key) * Math.log(2) / halfLife;}
+
+    /**
+     * Increments the count of the object by the increment
+     * @param key The object which count to increment
+     * @param increment The amount to increment
+     * @see DecayingCounter#increment(Object)
+     */
+    public void increment(T key, double increment) {
+        decay();
+        counts.increment(key, increment);
+    }
+
+    /**
+     * Increments the count of the object by the default increment value
+     * @param key The object which count to increment
+     * @see DecayingCounter#increment(Object, double)
+     */
+    public void increment(T key) {increment(key, this.increment);}
+
+    /**
+     * Resets all the values of the counter to 0
+     */
+    public void reset() {
+        counts.reset();
+        lastDecay = timer.getElapsedTime();
+    }
+
+    /**
+     * Reset the specified object counter to 0
+     * @param key The object which counter to reset
+     */
+    public void resetValue(T key) {counts.resetValue(key);}
+
+    /**
+     * @return The number of objects that currently have a count
+     */
+    public int size() {return counts.size();}
+
+    /**
+     * Applies the provided consumer to all the decayed values of the counter
+     * @param consumer The {@link ObjDoubleConsumer} of type T
+     * @see Counter#forEach(ObjDoubleConsumer)
+     */
+    public void forEach(ObjDoubleConsumer<? super T> consumer) {
+        decay();
+        counts.forEach(consumer);
+    }
+
+    @Override
+    public String toString() {
+        decay();
+        return counts.toString();
+    }
+
+    /**
+     * Decays the counts by the time elapsed since the last decay. If the time went back, the {@link Timer} was reset,
+     * and at least the time elapsed since the reset has passed, so the counts are decayed by it
+     */
+    private void decay() {
+        double now = timer.getElapsedTime();
+        if (now == lastDecay) return;
+        double elapsed = now < lastDecay ? now : now - lastDecay;
+        counts.scaleAll(Math.pow(0.5, elapsed / halfLife));
+        lastDecay = now;
+    }
+}
@@ -0,0 +1,260 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A class used to link objects to an integral counter
+ * <p> This is the {@code long} counterpart of {@link Counter}, for counts that are always whole numbers </p>
+ * <p> The counts are stored relatively to a shared offset, so that {@link LongCounter#incrementAll(long)} doesn't
+ * have to go through all the counts </p>
+ * @param <T> The type of object to link the counter to
+ * @see Counter
+ */
+public class LongCounter <T> {
+    private Object[] keys;
+    private long[] counts;
+    private int size;
+    private int threshold;
+    // The real count of an object is its stored count plus the offset
+    private long offset;
+    private final long startValue;
+    private final long increment;
+
+    /**
+     * This constructor takes the start value of the counter, its default increment and the number of objects it is
+     * expected to count
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @param expectedSize The number of objects that can be counted before the counter has to grow
+     * @see LongCounter#LongCounter(long, long)
+     */
+    public LongCounter(long startValue, long increment, int expectedSize) {
+        int capacity = CounterTables.capacityFor(expectedSize);
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.threshold = CounterTables.thresholdOf(capacity);
+        this.startValue = startValue;
+        this.increment = increment;
+    }
+
+    /**
+     * This constructor takes the start value of the counter and its default increment
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @see LongCounter#LongCounter(long)
+     * @see LongCounter#LongCounter()
+     */
+    public LongCounter(long startValue, long increment) {this(startValue, increment, 0);}
+
+    /**
+     * This constructor takes the start value of the counter
+     * <p> The default increment is set to 1 </p>
+     * @param startValue The start value of the counter. All the counters that are incremented or their values read
+     *                   are defaulted to this value
+     * @see LongCounter#LongCounter(long, long)
+     * @see LongCounter#LongCounter()
+     */
+    public LongCounter(long startValue) {this(startValue, 1L);}
+
+    /**
+     * This constructor takes no argument
+     * <p> The start value is set to 0 </p>
+     * <p> The default increment is set to 1 </p>
+     * @see LongCounter#LongCounter(long, long)
+     * @see LongCounter#LongCounter(long)
+     */
+    public LongCounter() {this(0L);}
+
+    /**
+     * Gets the current count of the object
+     * <p> If the object does not have a count, the start value will be returned </p>
+     * @param key The object to get the count from
+     * @return The count associated with the object
+     */
+    public long getCount(T key) {
+        int slot = findSlot(CounterTables.maskNull(key));
+        return slot < 0 ? startValue : counts[slot] + offset;
+    }
+
+    /**
+     * Increments the count of the object by the increment
+     * <p> The object is looked up only once, whether it already had a count or not </p>
+     * @param key The object which count to increment
+     * @param increment The amount to increment
+     * @see LongCounter#increment(Object)
+     */
+    public void increment(T key, long increment) {
+        Object masked = CounterTables.maskNull(key);
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) {counts[slot] += increment; return;}
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, masked, startValue + increment - offset);
+    }
+
+    /**
+     * Increments the count of the object by the default increment value
+     * @param key The object which count to increment
+     * @see LongCounter#increment(Object, long)
+     */
+    public void increment(T key) {increment(key, this.increment);}
+
+    /**
+     * Increments all the values by the specified increment
+     * <p> This takes a constant time, no matter how many objects have a count </p>
+     * @param increment The increment to add to all values
+     * @see LongCounter#incrementAll()
+     */
+    public void incrementAll(long increment) {this.offset += increment;}
+
+    /**
+     * Increment all the value by the default increment
+     * @see LongCounter#incrementAll(long)
+     */
+    public void incrementAll() {incrementAll(this.increment);}
+
+    /**
+     * Resets all the values of the counter to the start value
+     * <p> The table keeps its capacity, so the counter can be refilled without growing again </p>
+     */
+    public void reset() {
+        Arrays.fill(keys, null);
+        size = 0;
+        offset = 0;
+    }
+
+    /**
+     * Reset the specified object counter to the start value
+     * @param key The object which counter to reset
+     */
+    public void resetValue(T key) {
+        int slot = findSlot(CounterTables.maskNull(key));
+        if (slot >= 0) delete(slot);
+    }
+
+    /**
+     * Sets the values of this counter to the specified value
+     * @param key The object which counter to change the value
+     * @param count The value to set the counter to
+     */
+    public void setValue(T key, long count) {
+        Object masked = CounterTables.maskNull(key);
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) {counts[slot] = count - offset; return;}
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, masked, count - offset);
+    }
+
+    /**
+     * Set the value of this counter for this object to the start value
+     * @param key The object to initialize the value
+     */
+    public void setValue(T key) {setValue(key, startValue);}
+
+    /**
+     * @return The number of objects that currently have a count
+     */
+    @Contract(pure = true)
+    public int size() {return this.size;}
+
+    @Override
+    public String toString() {
+        StringBuilder string = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+            string.append(CounterTables.<T>unmaskNull(keys[i])).append(": ").append(counts[i] + offset).append("\n");
+        }
+        return string.toString();
+    }
+
+    /**
+     * Applies the provided consumer to all the values of the counter
+     * <p> The consumer takes each values of type T as a first argument, and the count
+     * associated the the value as a second argument</p>
+     * <p> The counts are given as primitive {@code long}, so no boxing happens while iterating </p>
+     * @param consumer The {@link ObjLongConsumer} of type T
+     */
+    public void forEach(ObjLongConsumer<? super T> consumer) {
+        Object[] keys = this.keys;
+        long[] counts = this.counts;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) consumer.accept(CounterTables.unmaskNull(keys[i]), counts[i] + offset);
+        }
+    }
+
+    private int findSlot(Object masked) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == masked || current.equals(masked)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int slot, Object masked, long count) {
+        keys[slot] = masked;
+        counts[slot] = count;
+        if (++size > threshold) rehash(keys.length << 1);
+    }
+
+    /**
+     * Removes the key at the given slot, shifting back the following keys of its probe sequence so that no
+     * tombstone is needed
+     */
+    private void delete(int slot) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        Object current;
+        while ((current = keys[next]) != null) {
+            int home = CounterTables.hash(current) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = current;
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = this.keys;
+        long[] oldCounts = this.counts;
+        Object[] keys = new Object[capacity];
+        long[] counts = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key == null) continue;
+            int slot = CounterTables.hash(key) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            counts[slot] = oldCounts[i];
+        }
+        this.keys = keys;
+        this.counts = counts;
+        this.threshold = CounterTables.thresholdOf(capacity);
+    }
+}
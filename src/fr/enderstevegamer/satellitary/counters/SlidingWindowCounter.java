@@ -0,0 +1,131 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import fr.enderstevegamer.satellitary.timers.Timer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ *     A counter only keeping the increments done during the last window of time measured by a {@link Timer}
+ * </p>
+ * <p>
+ *     The window is split into buckets, each holding the increments done during its slice of time. When the
+ *     window moves, only the buckets that fell out of it are cleared, so the counts never have to be swept
+ * </p>
+ * @param <T> The type of object to link the counter to
+ * @see DecayingCounter
+ */
+public class SlidingWindowCounter<T> {
+    private final Counter<T>[] buckets;
+    private final Timer timer;
+    private final double window;
+    private final double bucketDuration;
+    private final double increment;
+    private long currentBucket;
+
+    /**
+     * This constructor takes the duration of the window, the number of buckets it is split into, the {@link Timer}
+     * moving it and the default increment
+     * @param window The duration of the window, in seconds
+     * @param buckets The number of buckets of the window. More buckets make the window move more smoothly, but
+     *                make reading a count slower
+     * @param timer The {@link Timer} measuring the time
+     * @param increment The default increment of the counter. Each time a counter is incremented without specifying the
+     *                  increment, this value is used instead
+     * @see SlidingWindowCounter#SlidingWindowCounter(double, int, Timer)
+     */
+    @SuppressWarnings("unchecked")
+    public SlidingWindowCounter(double window, int buckets, @NotNull Timer timer, double increment) {
+        if (!(window > 0)) throw new IllegalArgumentException("The window must be positive!");
+        if (buckets <= 0) throw new IllegalArgumentException("The number of buckets must be positive!");
+        this.buckets = (Counter<T>[]) new Counter<?>[buckets];
+        for (int i = 0; i < buckets; i++) this.buckets[i] = new Counter<>(0, increment);
+        this.timer = timer;
+        this.window = window;
+        this.bucketDuration = window / buckets;
+        this.increment = increment;
+        this.currentBucket = bucketAt(timer.getElapsedTime());
+    }
+
+    /**
+     * This constructor takes the duration of the window, the number of buckets it is split into and the
+     * {@link Timer} moving it
+     * <p> The default increment is set to 1 </p>
+     * @param window The duration of the window, in seconds
+     * @param buckets The number of buckets of the window
+     * @param timer The {@link Timer} measuring the time
+     * @see SlidingWindowCounter#SlidingWindowCounter(double, int, Timer, double)
+     */
+    public SlidingWindowCounter(double window, int buckets, @NotNull Timer timer) {this(window, buckets, timer, 1);}
+
+    /**
+     * @return The duration of the window, in seconds
+     */
+    @Contract(pure = true)
+    public double getWindow() {return this.window;}
+
+    /**
+     * Gets the sum of the increments of the object during the window
+     * @param key The object to get the count from
+     * @return The count associated with the object, or 0 if it wasn't counted during the window
+     */
+    public double getCount(T key) {
+        advance();
+        double count = 0;
+        for (Counter<T> bucket : buckets) count += bucket.getCount(key);
+        return count;
+    }
+
+    /**
+     * Gets the rate of increments of the object during the window, in increments per second
+     * @param key The object to get the rate from
+     * @return The rate of increments of the object
+     */
+    public double getRate(T key) {return getCount(key) / window;}
+
+    /**
+     * Increments the count of the object by the increment
+     * @param key The object which count to increment
+     * @param increment The amount to increment
+     * @see SlidingWindowCounter#increment(Object)
+     */
+    public void increment(T key, double increment) {
+        advance();
+        buckets[Math.floorMod(currentBucket, buckets.length)].increment(key, increment);
+    }
+
+    /**
+     * Increments the count of the object by the default increment value
+     * @param key The object which count to increment
+     * @see SlidingWindowCounter#increment(Object, double)
+     */
+    public void increment(T key) {increment(key, this.increment);}
+
+    /**
+     * Resets all the values of the counter to 0
+     */
+    public void reset() {
+        for (Counter<T> bucket : buckets) bucket.reset();
+        currentBucket = bucketAt(timer.getElapsedTime());
+    }
+
+    /**
+     * Moves the window to the current time, clearing the buckets that fell out of it. If the time went back, the
+     * {@link Timer} was reset, and the age of the buckets is unknown, so they are all cleared
+     */
+    private void advance() {
+        long now = bucketAt(timer.getElapsedTime());
+        if (now < currentBucket) {
+            for (Counter<T> bucket : buckets) bucket.reset();
+            currentBucket = now;
+            return;
+        }
+        if (now == currentBucket) return;
+        long cleared = Math.min(now - currentBucket, buckets.length);
+        for (long i = 1; i <= cleared; i++) buckets[Math.floorMod(currentBucket + i, buckets.length)].reset();
+        currentBucket = now;
+    }
+
+    @Contract(pure = true)
+    private long bucketAt(double time) {return (long) Math.floor(time / bucketDuration);}
+}
@@ -0,0 +1,202 @@
+package fr.enderstevegamer.satellitary.counters;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ *     A class tracking the most counted objects with a fixed number of slots, using the Space-Saving algorithm
+ * </p>
+ * <p>
+ *     When an untracked object is counted while all the slots are used, it replaces the least counted object and
+ *     inherits its count as an error. Any object counted more than {@code total / capacity} times is guaranteed
+ *     to be tracked
+ * </p>
+ * @param <T> The type of the counted objects
+ */
+public class TopKTracker<T> {
+    private final int capacity;
+    // A min-heap of the tracked objects, ordered by count
+    private final Object[] heapKeys;
+    private final double[] heapCounts;
+    private final double[] heapErrors;
+    private int size;
+    // An open addressing table linking each tracked object to its position in the heap
+    private final Object[] slotKeys;
+    private final int[] slotPositions;
+
+    /**
+     * Creates an empty {@link TopKTracker}
+     * @param capacity The maximum number of tracked objects
+     */
+    public TopKTracker(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive!");
+        this.capacity = capacity;
+        this.heapKeys = new Object[capacity];
+        this.heapCounts = new double[capacity];
+        this.heapErrors = new double[capacity];
+        int slots = CounterTables.capacityFor(capacity);
+        this.slotKeys = new Object[slots];
+        this.slotPositions = new int[slots];
+    }
+
+    /**
+     * @return The maximum number of tracked objects
+     */
+    @Contract(pure = true)
+    public int getCapacity() {return this.capacity;}
+
+    /**
+     * @return The number of tracked objects
+     */
+    @Contract(pure = true)
+    public int size() {return this.size;}
+
+    /**
+     * Increments the count of the object, replacing the least counted object if it isn't tracked and there is
+     * no free slot
+     * @param key The object which count to increment
+     * @param increment The amount to increment, which can't be negative
+     */
+    public void increment(T key, double increment) {
+        if (increment < 0) throw new IllegalArgumentException("Can't decrement a top-k tracker!");
+        Object masked = CounterTables.maskNull(key);
+        int slot = findSlot(masked);
+        if (slot >= 0) {
+            int position = slotPositions[slot];
+            heapCounts[position] += increment;
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            int position = size++;
+            heapKeys[position] = masked;
+            heapCounts[position] = increment;
+            heapErrors[position] = 0;
+            putSlot(masked, position);
+            siftUp(position);
+            return;
+        }
+        double minimum = heapCounts[0];
+        deleteSlot(findSlot(heapKeys[0]));
+        heapKeys[0] = masked;
+        heapCounts[0] = minimum + increment;
+        heapErrors[0] = minimum;
+        putSlot(masked, 0);
+        siftDown(0);
+    }
+
+    /**
+     * Returns the estimate of a tracked object
+     * @param key The object to get the estimate from
+     * @return The {@link CountEstimate} of the object, or {@code null} if it isn't tracked
+     */
+    public CountEstimate<T> getEstimate(T key) {
+        int slot = findSlot(CounterTables.maskNull(key));
+        if (slot < 0) return null;
+        int position = slotPositions[slot];
+        return new CountEstimate<>(key, heapCounts[position], heapErrors[position]);
+    }
+
+    /**
+     * @return The smallest count of the tracked objects, which bounds the count of any untracked object, or 0 if
+     * there are free slots
+     */
+    @Contract(pure = true)
+    public double getMinimumCount() {return this.size < this.capacity ? 0 : this.heapCounts[0];}
+
+    /**
+     * Returns the most counted objects
+     * @param n The maximum number of objects to return
+     * @return The {@link CountEstimate} of the {@code n} most counted objects, from the most to the least counted
+     */
+    public @NotNull List<CountEstimate<T>> topK(int n) {
+        if (n < 0) throw new IllegalArgumentException("Can't get a negative number of objects!");
+        ArrayList<CountEstimate<T>> estimates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            estimates.add(new CountEstimate<>(CounterTables.unmaskNull(heapKeys[i]), heapCounts[i], heapErrors[i]));
+        }
+        estimates.sort(Comparator.comparingDouble(CountEstimate<T>::count).reversed());
+        return estimates.subList(0, Math.min(n, estimates.size()));
+    }
+
+    /**
+     * Stops tracking all the objects
+     */
+    public void reset() {
+        Arrays.fill(heapKeys, null);
+        Arrays.fill(slotKeys, null);
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapCounts[parent] <= heapCounts[position]) return;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && heapCounts[left] < heapCounts[smallest]) smallest = left;
+            if (right < size && heapCounts[right] < heapCounts[smallest]) smallest = right;
+            if (smallest == position) return;
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object key = heapKeys[a]; heapKeys[a] = heapKeys[b]; heapKeys[b] = key;
+        double count = heapCounts[a]; heapCounts[a] = heapCounts[b]; heapCounts[b] = count;
+        double error = heapErrors[a]; heapErrors[a] = heapErrors[b]; heapErrors[b] = error;
+        slotPositions[findSlot(heapKeys[a])] = a;
+        slotPositions[findSlot(heapKeys[b])] = b;
+    }
+
+    private int findSlot(Object masked) {
+        int mask = slotKeys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        Object current;
+        while ((current = slotKeys[slot]) != null) {
+            if (current == masked || current.equals(masked)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void putSlot(Object masked, int position) {
+        int mask = slotKeys.length - 1;
+        int slot = CounterTables.hash(masked) & mask;
+        while (slotKeys[slot] != null) slot = (slot + 1) & mask;
+        slotKeys[slot] = masked;
+        slotPositions[slot] = position;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = slotKeys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        Object current;
+        while ((current = slotKeys[next]) != null) {
+            int home = CounterTables.hash(current) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slotKeys[hole] = current;
+                slotPositions[hole] = slotPositions[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slotKeys[hole] = null;
+    }
+}
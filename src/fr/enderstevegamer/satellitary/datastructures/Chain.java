@@ -4,11 +4,19 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * A data structure representing elements with a reference to the next object
+ * <p> For long sequences, {@link UnrolledChain} stores several elements per node and is faster to go through </p>
  * @param <T> The type of object stored in this chain
  */
-public class Chain<T> {
+public class Chain<T> implements Iterable<T> {
     private T element;
     private Chain<T> nextChain;
 
@@ -70,4 +78,38 @@ public class Chain<T> {
      * Removes the next {@link Chain} after this one (sets it to {@code null})
      */
     public void removeNextChain() {this.nextChain = null;}
+
+    /**
+     * @return An iterator over the elements of this {@link Chain} and of the ones following it
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Chain<T> next = Chain.this;
+
+            @Override
+            public boolean hasNext() {return this.next != null;}
+
+            @Override
+            public T next() {
+                if (this.next == null) throw new NoSuchElementException();
+                T element = this.next.element;
+                this.next = this.next.nextChain;
+                return element;
+            }
+        };
+    }
+
+    /**
+     * @return A {@link Spliterator} over the elements of this {@link Chain} and of the ones following it
+     */
+    @Override
+    public @NotNull Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(this.iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * @return A sequential {@link Stream} of the elements of this {@link Chain} and of the ones following it
+     */
+    public @NotNull Stream<T> stream() {return StreamSupport.stream(this.spliterator(), false);}
 }
@@ -0,0 +1,355 @@
+package fr.enderstevegamer.satellitary.datastructures;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ *     A data structure chaining blocks of several elements, instead of one {@link Chain} per element
+ * </p>
+ * <p>
+ *     Going through the elements of a block doesn't follow any reference, so iterating the {@link UnrolledChain} is
+ *     much friendlier to the processor caches than iterating a {@link Chain}. Elements are appended in constant time
+ *     through a reference to the last block, and the {@link Spliterator} splits the {@link UnrolledChain} on block
+ *     boundaries, so it can be processed with a parallel {@link Stream}
+ * </p>
+ * @param <T> The type of object stored in this chain
+ */
+public class UnrolledChain<T> implements Iterable<T> {
+    private static final int DEFAULT_BLOCK_CAPACITY = 64;
+
+    private final int blockCapacity;
+    private Block head;
+    private Block tail;
+    private long size;
+    private int modCount;
+
+    /**
+     * Creates an empty {@link UnrolledChain}
+     * @param blockCapacity The number of elements stored in each block
+     */
+    public UnrolledChain(int blockCapacity) {
+        if (blockCapacity <= 0) throw new IllegalArgumentException("The block capacity must be positive!");
+        this.blockCapacity = blockCapacity;
+    }
+
+    /**
+     * Creates an empty {@link UnrolledChain} with blocks of 64 elements
+     */
+    public UnrolledChain() {this(DEFAULT_BLOCK_CAPACITY);}
+
+    /**
+     * Adds an element at the end of the {@link UnrolledChain}
+     * @param element The element to add
+     */
+    public void add(T element) {
+        Block tail = this.tail;
+        if (tail == null || tail.size == this.blockCapacity) {
+            Block block = new Block(this.blockCapacity);
+            if (tail == null) this.head = block;
+            else tail.next = block;
+            this.tail = tail = block;
+        }
+        tail.elements[tail.size++] = element;
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Adds all the elements at the end of the {@link UnrolledChain}, in their iteration order
+     * @param elements The elements to add
+     */
+    public void addAll(@NotNull Iterable<? extends T> elements) {
+        for (T element : elements) this.add(element);
+    }
+
+    /**
+     * Adds an element at the start of the {@link UnrolledChain}
+     * @param element The element to add
+     */
+    public void addFirst(T element) {
+        Block head = this.head;
+        if (head == null) {
+            this.add(element);
+            return;
+        }
+        if (head.size == this.blockCapacity) {
+            Block block = new Block(this.blockCapacity);
+            block.next = head;
+            this.head = head = block;
+        }
+        else System.arraycopy(head.elements, 0, head.elements, 1, head.size);
+        head.elements[0] = element;
+        head.size++;
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Returns the element at the index, going through the blocks before it
+     * @param index The index of the element
+     * @return The element at the index
+     * @throws IndexOutOfBoundsException If the index is negative or not lower than the size
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long index) {
+        Position position = this.positionOf(index);
+        return (T) position.block.elements[position.index];
+    }
+
+    /**
+     * Replaces the element at the index
+     * @param index The index of the element
+     * @param element The new element
+     * @return The replaced element
+     * @throws IndexOutOfBoundsException If the index is negative or not lower than the size
+     */
+    @SuppressWarnings("unchecked")
+    public T set(long index, T element) {
+        Position position = this.positionOf(index);
+        T replaced = (T) position.block.elements[position.index];
+        position.block.elements[position.index] = element;
+        return replaced;
+    }
+
+    /**
+     * @return The first element of the {@link UnrolledChain}
+     * @throws NoSuchElementException If the {@link UnrolledChain} is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T getFirst() {
+        if (this.head == null) throw new NoSuchElementException("The chain is empty!");
+        return (T) this.head.elements[0];
+    }
+
+    /**
+     * @return The last element of the {@link UnrolledChain}
+     * @throws NoSuchElementException If the {@link UnrolledChain} is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T getLast() {
+        if (this.tail == null) throw new NoSuchElementException("The chain is empty!");
+        return (T) this.tail.elements[this.tail.size - 1];
+    }
+
+    /**
+     * @return The number of elements in the {@link UnrolledChain}
+     */
+    @Contract(pure = true)
+    public long size() {return this.size;}
+
+    /**
+     * @return {@code true} if the {@link UnrolledChain} contains no element, {@code false} otherwise
+     */
+    @Contract(pure = true)
+    public boolean isEmpty() {return this.size == 0;}
+
+    /**
+     * Removes all the elements of the {@link UnrolledChain}
+     */
+    public void clear() {
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Runs the action on each element, block by block
+     * @param action The action to run
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull Consumer<? super T> action) {
+        int expectedModCount = this.modCount;
+        for (Block block = this.head; block != null; block = block.next) {
+            Object[] elements = block.elements;
+            for (int i = 0, size = block.size; i < size; i++) action.accept((T) elements[i]);
+        }
+        if (this.modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    /**
+     * @return An iterator over the elements, which can remove them
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {return new ChainIterator();}
+
+    /**
+     * @return A {@link Spliterator} over the elements, splitting on block boundaries
+     */
+    @Override
+    public @NotNull Spliterator<T> spliterator() {
+        return new BlockSpliterator(this.head, 0, null, this.size, this.modCount);
+    }
+
+    /**
+     * @return A sequential {@link Stream} of the elements
+     */
+    public @NotNull Stream<T> stream() {return StreamSupport.stream(this.spliterator(), false);}
+
+    /**
+     * @return A parallel {@link Stream} of the elements
+     */
+    public @NotNull Stream<T> parallelStream() {return StreamSupport.stream(this.spliterator(), true);}
+
+    /**
+     * Finds the block containing the index, without changing the blocks, so that lookups can run concurrently
+     * @return The block and the position of the element in it
+     */
+    private @NotNull Position positionOf(long index) {
+        if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for size " + this.size + "!"
+        );
+        for (Block block = this.head; ; block = block.next) {
+            if (index < block.size) return new Position(block, (int) index);
+            index -= block.size;
+        }
+    }
+
+    private record Position(@NotNull Block block, int index) {}
+
+    private static final class Block {
+        private final Object[] elements;
+        private int size;
+        private Block next;
+
+        private Block(int capacity) {this.elements = new Object[capacity];}
+    }
+
+    private final class ChainIterator implements Iterator<T> {
+        private Block previousBlock;
+        private Block block = UnrolledChain.this.head;
+        private int index;
+        private Block lastBlock;
+        private Block lastPreviousBlock;
+        private int lastIndex = -1;
+        private int expectedModCount = UnrolledChain.this.modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (this.block != null && this.index == this.block.size) {
+                this.previousBlock = this.block;
+                this.block = this.block.next;
+                this.index = 0;
+            }
+            return this.block != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (UnrolledChain.this.modCount != this.expectedModCount) throw new ConcurrentModificationException();
+            if (!this.hasNext()) throw new NoSuchElementException();
+            this.lastBlock = this.block;
+            this.lastPreviousBlock = this.previousBlock;
+            this.lastIndex = this.index;
+            return (T) this.block.elements[this.index++];
+        }
+
+        @Override
+        public void remove() {
+            if (this.lastIndex < 0) throw new IllegalStateException("No element to remove!");
+            if (UnrolledChain.this.modCount != this.expectedModCount) throw new ConcurrentModificationException();
+            Block block = this.lastBlock;
+            System.arraycopy(block.elements, this.lastIndex + 1, block.elements, this.lastIndex,
+                    block.size - this.lastIndex - 1);
+            block.elements[--block.size] = null;
+            if (block.size == 0) {
+                if (this.lastPreviousBlock == null) UnrolledChain.this.head = block.next;
+                else this.lastPreviousBlock.next = block.next;
+                if (UnrolledChain.this.tail == block) UnrolledChain.this.tail = this.lastPreviousBlock;
+                this.previousBlock = this.lastPreviousBlock;
+                this.block = block.next;
+                this.index = 0;
+            }
+            else if (this.block == block) this.index = this.lastIndex;
+            UnrolledChain.this.size--;
+            this.expectedModCount = ++UnrolledChain.this.modCount;
+            this.lastIndex = -1;
+        }
+    }
+
+    private final class BlockSpliterator implements Spliterator<T> {
+        private Block block;
+        private int index;
+        // The first block not covered by this spliterator, or null to go to the end
+        private final Block fence;
+        private long remaining;
+        private final int expectedModCount;
+
+        private BlockSpliterator(@Nullable Block block, int index, @Nullable Block fence, long remaining,
+                                 int expectedModCount) {
+            this.block = block;
+            this.index = index;
+            this.fence = fence;
+            this.remaining = remaining;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(@NotNull Consumer<? super T> action) {
+            while (this.block != this.fence && this.index == this.block.size) {
+                this.block = this.block.next;
+                this.index = 0;
+            }
+            if (this.block == this.fence) return false;
+            T element = (T) this.block.elements[this.index++];
+            this.remaining--;
+            action.accept(element);
+            if (UnrolledChain.this.modCount != this.expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(@NotNull Consumer<? super T> action) {
+            for (Block block = this.block; block != this.fence; block = block.next) {
+                Object[] elements = block.elements;
+                for (int i = block == this.block ? this.index : 0, size = block.size; i < size; i++) {
+                    action.accept((T) elements[i]);
+                }
+            }
+            this.block = this.fence;
+            this.remaining = 0;
+            if (UnrolledChain.this.modCount != this.expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        /**
+         * Gives away the first half of the remaining blocks
+         */
+        @Override
+        public @Nullable Spliterator<T> trySplit() {
+            if (this.block == this.fence || this.block.next == this.fence) return null;
+            long prefix = this.block.size - this.index;
+            Block split = this.block.next;
+            while (split.next != this.fence && prefix + split.size <= this.remaining >>> 1) {
+                prefix += split.size;
+                split = split.next;
+            }
+            BlockSpliterator prefixSpliterator = new BlockSpliterator(
+                    this.block, this.index, split, prefix, this.expectedModCount
+            );
+            this.block = split;
+            this.index = 0;
+            this.remaining -= prefix;
+            return prefixSpliterator;
+        }
+
+        @Override
+        public long estimateSize() {return this.remaining;}
+
+        @Override
+        public int characteristics() {return ORDERED | SIZED | SUBSIZED;}
+    }
+}
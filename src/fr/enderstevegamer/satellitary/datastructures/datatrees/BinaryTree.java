@@ -18,11 +18,19 @@ public class BinaryTree<T> extends Tree<T> {
         return this.hasSubTrees() ? Optional.of(this.subTrees.get(0)) : Optional.empty();
     }
 
-    public void setLeft(Tree<T> subTree) {this.subTrees.set(0, subTree);}
+    public void setLeft(Tree<T> subTree) {
+        this.detach(this.subTrees.set(0, subTree));
+        this.attach(subTree);
+        this.modified();
+    }
 
     public Optional<Tree<T>> getRight() {
         return this.subTrees.size() > 1 ? Optional.of(this.subTrees.get(1)) : Optional.empty();
     }
 
-    public void setRight(Tree<T> subTree) {this.subTrees.set(1, subTree);}
+    public void setRight(Tree<T> subTree) {
+        this.detach(this.subTrees.set(1, subTree));
+        this.attach(subTree);
+        this.modified();
+    }
 }
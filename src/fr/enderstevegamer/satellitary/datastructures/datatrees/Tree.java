@@ -11,15 +11,43 @@ import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * <p>
+ *     A tree of elements, where each subtree is itself a {@link Tree}. A subtree may be shared by several trees
+ * </p>
+ * <p>
+ *     Every subtree keeps a reference to each tree it was added to, so that changing it marks the
+ *     {@link TreeLcaIndex} of the trees containing it as outdated. A tree dropped without removing its subtrees
+ *     through {@link Tree#removeSubTree(int)} therefore stays reachable, and can't be garbage collected, as long as
+ *     one of its subtrees is still in use
+ * </p>
+ * @param <T> The type of the elements contained in the tree
+ */
 @SuppressWarnings("unused")
 public class Tree<T> {
     private T root;
     protected final ArrayList<Tree<T>> subTrees;
-
-    @Contract(pure = true)
+    // The trees this tree is a subtree of, so that changes reach the indexes of the trees containing it
+    private ArrayList<Tree<T>> parents;
+    // Changed whenever this tree or one of its indexed subtrees changes, so that a TreeLcaIndex knows it is outdated
+    long version;
+    // Whether this tree may be numbered by an up to date TreeLcaIndex
+    boolean indexed;
+    private TreeLcaIndex<T> lcaIndex;
+
+    /**
+     * Creates a tree with the given subtrees
+     * <p>
+     *     The subtrees are copied to a list of the tree, so changing the given list afterwards doesn't change the
+     *     tree: subtrees must be added or removed through the methods of the tree
+     * </p>
+     * @param root The element at the root of the tree
+     * @param subTrees The subtrees of the tree, which will keep a reference to it
+     */
     public Tree(T root, ArrayList<Tree<T>> subTrees) {
         this.root = root;
-        this.subTrees = subTrees;
+        this.subTrees = new ArrayList<>(subTrees);
+        for (Tree<T> subTree : this.subTrees) this.attach(subTree);
     }
 
     public Tree(T root) {
@@ -28,7 +56,10 @@ public class Tree<T> {
 
     public T getRoot() {return this.root;}
 
-    public void setRoot(T root) {this.root = root;}
+    public void setRoot(T root) {
+        this.root = root;
+        this.modified();
+    }
 
     public List<Tree<T>> getSubTrees() {return List.copyOf(this.subTrees);}
 
@@ -36,43 +67,52 @@ public class Tree<T> {
 
     public Tree<T> getSubTree(int subTreeIndex) {return this.subTrees.get(subTreeIndex);}
 
-    public Tree<T> addSubTree(Tree<T> subTree) {this.subTrees.add(subTree); return this;}
+    public Tree<T> addSubTree(Tree<T> subTree) {
+        this.subTrees.add(subTree);
+        this.attach(subTree);
+        this.modified();
+        return this;
+    }
 
     public Tree<T> addSubTree(T object) {this.addSubTree(new Tree<>(object)); return this;}
 
-    public Tree<T> removeSubTree(int subTreeIndex) {return this.subTrees.remove(subTreeIndex);}
+    public Tree<T> removeSubTree(int subTreeIndex) {
+        Tree<T> removed = this.subTrees.remove(subTreeIndex);
+        this.detach(removed);
+        this.modified();
+        return removed;
+    }
 
     public boolean hasSubTrees() {return !this.subTrees.isEmpty();}
 
     public T getElement(@NotNull TreeIndex index) throws OperationNotSupportedException {
-        if (index.isEmpty()) return root;
-        TreeIndex nextIndex;
-        int nextTree;
-        if (index.isUnique()) {
-            nextIndex = new TreeIndex();
-            nextTree = index.getUnique();
-        }
-        else {
-            nextIndex = index.subIndex();
-            nextTree = index.getFirstIndex();
+        Tree<T> tree = this;
+        for (int level = 0; level < index.length; level++) {
+            int nextTree = index.indexes[index.offset + level] - 1;
+            if (nextTree < 0 || nextTree >= tree.subTrees.size()) throw new IndexOutOfBoundsException(
+                    "subtree index " + nextTree + " out of bounds for " + tree.subTrees.size() + " trees!\n"
+                            + "Current index: " + index.slice(level, index.length - level)
+            );
+            tree = tree.subTrees.get(nextTree);
         }
-        nextTree--;
-        if (nextTree < 0 || nextTree >= this.subTrees.size()) throw new IndexOutOfBoundsException(
-                "subtree index " + nextTree + " out of bounds for " + this.subTrees.size() + " trees!\n"
-                        + "Current index: " + index
-        );
-        return this.subTrees.get(nextTree).getElement(nextIndex);
+        return tree.root;
     }
 
-    public Tree<T> getSubTree(@NotNull TreeIndex index) {
-        if (index.isEmpty()) return this;
-        return this.subTrees.get(index.getFirstIndex() - 1).getSubTree(index.subIndex());
-    }
+    public Tree<T> getSubTree(@NotNull TreeIndex index) {return this.getSubTree(index, index.length);}
 
     public Tree<T> removeSubTree(@NotNull TreeIndex index) throws OperationNotSupportedException {
         if (index.isEmpty()) throw new UnsupportedOperationException("This tree can't remove itself!");
-        if (index.isUnique()) return this.subTrees.remove(index.getUnique() - 1);
-        return this.subTrees.get(index.getFirstIndex() - 1).removeSubTree(index.subIndex());
+        int last = index.indexes[index.offset + index.length - 1];
+        return this.getSubTree(index, index.length - 1).removeSubTree(last - 1);
+    }
+
+    /**
+     * Walks down the first levels of the index without allocating anything
+     */
+    private @NotNull Tree<T> getSubTree(@NotNull TreeIndex index, int depth) {
+        Tree<T> tree = this;
+        for (int level = 0; level < depth; level++) tree = tree.subTrees.get(index.indexes[index.offset + level] - 1);
+        return tree;
     }
 
     public ArrayList<T> getLeaves() {
@@ -94,13 +134,31 @@ public class Tree<T> {
     }
 
     public ArrayList<TreeElementSearchResult<T>> findElement(@NotNull Predicate<T> predicate, @NotNull TreeIndex currentIndex) {
-        ArrayList<TreeElementSearchResult<T>> list = new ArrayList<>(predicate.test(this.getRoot())
-                ? List.of(new TreeElementSearchResult<>(this.getRoot(), currentIndex))
-                : List.of());
+        ArrayList<TreeElementSearchResult<T>> list = new ArrayList<>();
+        int[] path = Arrays.copyOfRange(currentIndex.indexes, currentIndex.offset,
+                currentIndex.offset + Math.max(currentIndex.length, 8));
+        this.findElement(predicate, path, currentIndex.length, list);
+        return list;
+    }
+
+    /**
+     * Searches the tree with the index of the current tree stored in a single path buffer, so that an index is only
+     * created for the elements found
+     * @return The path buffer, which is a new one if it had to grow
+     */
+    private int @NotNull [] findElement(@NotNull Predicate<T> predicate, int @NotNull [] path, int depth,
+                                        @NotNull ArrayList<TreeElementSearchResult<T>> list) {
+        if (predicate.test(this.getRoot())) {
+            TreeIndex index = new TreeIndex(Arrays.copyOf(path, depth), 0, depth);
+            list.add(new TreeElementSearchResult<>(this.getRoot(), index));
+        }
+        if (this.subTrees.isEmpty()) return path;
+        if (depth == path.length) path = Arrays.copyOf(path, depth << 1);
         for (int i = 0; i < this.subTrees.size(); i++) {
-            list.addAll(this.subTrees.get(i).findElement(predicate, new TreeIndex(currentIndex, i + 1)));
+            path[depth] = i + 1;
+            path = this.subTrees.get(i).findElement(predicate, path, depth + 1, list);
         }
-        return list;
+        return path;
     }
 
     public ArrayList<TreeElementSearchResult<T>> findElement(Predicate<T> predicate) {
@@ -110,49 +168,25 @@ public class Tree<T> {
     public ArrayList<TreeElementSearchResult<T>> findElement(T object) {return findElement(o -> o.equals(object));}
 
     public Optional<TreeSearchResult<T>> findFirstCommonTree(TreeIndex index, T otherObject) {
-        if (this.getSubTree(index).getAllElements().contains(otherObject)) return Optional.of(
-                new TreeSearchResult<>(this.getSubTree(index),
-                        index
-                )
-        );
-        if (index.isEmpty()) return Optional.empty();
-        return findFirstCommonTree(index.parentIndex(), otherObject);
-    }
-
-    private ArrayList<TreeSearchResult<T>> findSmallestCommonTree(List<T> objects, TreeIndex currentIndex) {
-        ArrayList<TreeSearchResult<T>> validTrees = this.getSubTreesContaining(objects, currentIndex);
-        ArrayList<TreeSearchResult<T>> selected = new ArrayList<>();
-        int maxSize = Integer.MIN_VALUE;
-        for (TreeSearchResult<T> tree : validTrees) {
-            if (tree.foundIndex.indexes.size() > maxSize) {
-                selected = new ArrayList<>(List.of(tree));
-                maxSize = tree.foundIndex.indexes.size();
-            }
-            else if (tree.foundIndex.indexes.size() == maxSize) selected.add(tree);
-        }
-        return selected;
+        return this.getLcaIndex().findFirstCommonTree(index, otherObject);
     }
 
     public ArrayList<TreeSearchResult<T>> findSmallestCommonTree(List<T> objects) {
-        return findSmallestCommonTree(objects, new TreeIndex());
+        return this.getLcaIndex().findSmallestCommonTree(objects);
     }
 
-    private @NotNull ArrayList<TreeSearchResult<T>> getSubTreesContaining(List<T> objects, TreeIndex currentIndex) {
-        if (!this.containsAllElements(objects)) return new ArrayList<>();
-        ArrayList<TreeSearchResult<T>> results = new ArrayList<>(
-                List.of(new TreeSearchResult<>(this, currentIndex))
-        );
-        for (int i = 0; i < this.subTrees.size(); i++) {
-            results.addAll(
-                    this.subTrees.get(i).getSubTreesContaining(objects, new TreeIndex(currentIndex, i + 1))
-            );
-        }
-        return results;
+    /**
+     * @return A {@link TreeLcaIndex} of this tree, which is kept and only built again once a tree was changed
+     */
+    public TreeLcaIndex<T> getLcaIndex() {
+        if (this.lcaIndex == null || !this.lcaIndex.isUpToDate()) this.lcaIndex = new TreeLcaIndex<>(this);
+        return this.lcaIndex;
     }
 
     public boolean containsAllElements(List<T> objects) {
+        ArrayList<T> elements = this.getAllElements();
         objects: for (T obj : objects) {
-            for (T element : this.getAllElements()) {
+            for (T element : elements) {
                 if (element.equals(obj)) continue objects;
             }
             return false;
@@ -180,6 +214,48 @@ public class Tree<T> {
         return list;
     }
 
+    /**
+     * Marks the indexes of this tree and of the trees containing it as outdated. Must be called by subclasses
+     * changing the subtrees directly. Only the trees numbered by an index since the last change are visited, so a
+     * change costs a constant amortized time
+     */
+    protected void modified() {
+        this.version++;
+        ArrayList<Tree<T>> pending = new ArrayList<>(List.of(this));
+        while (!pending.isEmpty()) {
+            Tree<T> tree = pending.remove(pending.size() - 1);
+            if (tree.parents == null) continue;
+            for (Tree<T> parent : tree.parents) {
+                if (!parent.indexed) continue;
+                parent.indexed = false;
+                parent.version++;
+                pending.add(parent);
+            }
+        }
+    }
+
+    /**
+     * Records that the tree is now a subtree of this one. Must be called by subclasses adding subtrees directly
+     */
+    protected void attach(@NotNull Tree<T> subTree) {
+        if (subTree.parents == null) subTree.parents = new ArrayList<>(1);
+        subTree.parents.add(this);
+    }
+
+    /**
+     * Records that the tree is no longer a subtree of this one. Must be called by subclasses removing subtrees directly
+     * <p> The parent is found by identity, as another parent may be equal to this tree </p>
+     */
+    protected void detach(@NotNull Tree<T> subTree) {
+        if (subTree.parents == null) return;
+        for (int i = subTree.parents.size() - 1; i >= 0; i--) {
+            if (subTree.parents.get(i) == this) {
+                subTree.parents.remove(i);
+                return;
+            }
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder str = new StringBuilder(this.getRoot() + ": [");
@@ -226,31 +302,47 @@ public class Tree<T> {
         }
     }
 
+    /**
+     * <p>
+     *     The path from a tree to one of its subtrees, made of the position (starting at {@code 1}) of the subtree
+     *     chosen at each level
+     * </p>
+     * <p>
+     *     The positions are stored in an {@code int} array that is never modified once the index is created, so
+     *     {@link TreeIndex#subIndex()} and {@link TreeIndex#parentIndex()} are views sharing the array of this index,
+     *     created in constant time
+     * </p>
+     */
     public static class TreeIndex {
-        ArrayList<Integer> indexes;
+        final int[] indexes;
+        final int offset;
+        final int length;
 
         @Contract(pure = true)
-        public TreeIndex() {
-            indexes = new ArrayList<>();
-        }
+        public TreeIndex() {this(new int[0], 0, 0);}
 
         @Contract(pure = true)
-        public TreeIndex(@NotNull TreeIndex other) {
-            indexes = new ArrayList<>(other.indexes);
-        }
+        public TreeIndex(@NotNull TreeIndex other) {this(other.indexes, other.offset, other.length);}
 
         public TreeIndex(@NotNull TreeIndex other, Integer indexes) {
-            ArrayList<Integer> list = new ArrayList<>(other.indexes);
-            list.add(indexes);
-            this.indexes = list;
+            this(Arrays.copyOfRange(other.indexes, other.offset, other.offset + other.length + 1), 0, other.length + 1);
+            this.indexes[this.length - 1] = indexes;
         }
 
         public TreeIndex(Integer... treeIndex) {
-            indexes = new ArrayList<>(Arrays.asList(treeIndex));
+            this(new int[treeIndex.length], 0, treeIndex.length);
+            for (int i = 0; i < treeIndex.length; i++) this.indexes[i] = treeIndex[i];
         }
 
         @Contract(pure = true)
-        protected boolean isUnique() {return this.indexes.size() == 1;}
+        TreeIndex(int @NotNull [] indexes, int offset, int length) {
+            this.indexes = indexes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Contract(pure = true)
+        protected boolean isUnique() {return this.length == 1;}
 
         protected Integer getUnique() throws OperationNotSupportedException {
             if (!isUnique()) throw new OperationNotSupportedException(
@@ -259,39 +351,43 @@ public class Tree<T> {
                     Check if the TreeIndex is unique with TreeIndex#isUnique before calling this method!
                     """
             );
-            return this.indexes.get(0);
+            return this.indexes[this.offset];
         }
 
-        protected boolean isEmpty() {return this.indexes.isEmpty();}
+        @Contract(pure = true)
+        protected boolean isEmpty() {return this.length == 0;}
 
         protected Integer getFirstIndex() {
             if (this.isEmpty()) throw new IllegalStateException("Can't get the first index of an empty TreeIndex!");
-            return this.indexes.get(0);
+            return this.indexes[this.offset];
         }
 
         protected TreeIndex subIndex() {
             if (this.isEmpty()) throw new IllegalStateException("Can't get a subindex of an empty TreeIndex!");
-            TreeIndex newIndex = new TreeIndex(this);
-            newIndex.indexes.remove(0);
-            return newIndex;
+            return this.slice(1, this.length - 1);
         }
 
         protected TreeIndex parentIndex() {
-            TreeIndex parentIndex = new TreeIndex(this);
-            if (this.isEmpty()) return parentIndex;
-            parentIndex.indexes.remove(parentIndex.indexes.size() - 1);
-            return parentIndex;
+            if (this.isEmpty()) return this;
+            return this.slice(0, this.length - 1);
         }
 
-        public int getDepth() {return this.indexes.size();}
+        @Contract(pure = true)
+        public int getDepth() {return this.length;}
+
+        /**
+         * @return A view of the given levels of this index, sharing its array
+         */
+        @Contract(pure = true)
+        @NotNull TreeIndex slice(int from, int length) {return new TreeIndex(this.indexes, this.offset + from, length);}
 
         @Override
         public String toString() {
             if (this.isEmpty()) return "0";
             StringBuilder string = new StringBuilder();
-            for (int i = 0; i < indexes.size(); i++) {
-                string.append(indexes.get(i));
-                if (i < indexes.size() - 1) string.append('.');
+            for (int i = 0; i < this.length; i++) {
+                string.append(this.indexes[this.offset + i]);
+                if (i < this.length - 1) string.append('.');
             }
             return string.toString();
         }
@@ -0,0 +1,269 @@
+package fr.enderstevegamer.satellitary.datastructures.datatrees;
+
+import fr.enderstevegamer.satellitary.IntStack;
+import fr.enderstevegamer.satellitary.datastructures.datatrees.Tree.TreeIndex;
+import fr.enderstevegamer.satellitary.datastructures.datatrees.Tree.TreeSearchResult;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>
+ *     An index answering lowest common ancestor queries on a {@link Tree}, and finding the subtrees holding an element
+ * </p>
+ * <p>
+ *     The subtrees are numbered in depth-first order, and the Euler tour of the tree is stored with a sparse table of
+ *     the shallowest subtree of every range of the tour whose length is a power of two, so the lowest common ancestor
+ *     of two subtrees is found in constant time after a build taking {@code O(n log n)}. The subtrees holding each
+ *     element are stored in a hash map, so a query on {@code k} elements takes {@code O(k)} when each of them is found
+ *     once in the tree
+ * </p>
+ * <p>
+ *     The index is a snapshot of the tree: it is outdated as soon as the tree or one of its subtrees is changed through
+ *     {@link Tree#addSubTree(Tree)}, {@link Tree#removeSubTree(int)}, {@link Tree#setRoot(Object)} or the setters of
+ *     {@link BinaryTree}. Changing other trees doesn't affect it. {@link Tree#getLcaIndex()} keeps an up to date index
+ *     of a tree, building it again when needed
+ * </p>
+ * @param <T> The type of the elements contained in the tree
+ */
+public class TreeLcaIndex<T> {
+    private final long version;
+    private final Tree<T>[] trees;
+    private final int[] parents;
+    private final int[] depths;
+    private final int[] positions;
+    private final int[] childStarts;
+    private final int[] children;
+    private final int[] firstVisits;
+    private final int[][] sparseTable;
+    private final HashMap<T, Integer> firstOccurrences = new HashMap<>();
+    private final int[] nextOccurrences;
+
+    /**
+     * Creates a {@link TreeLcaIndex} of the tree and all its subtrees
+     * @param tree The {@link Tree} to index
+     */
+    @SuppressWarnings("unchecked")
+    public TreeLcaIndex(@NotNull Tree<T> tree) {
+        this.version = tree.version;
+        int size = count(tree);
+        this.trees = (Tree<T>[]) new Tree<?>[size];
+        this.parents = new int[size];
+        this.depths = new int[size];
+        this.positions = new int[size];
+        this.childStarts = new int[size];
+        this.children = new int[size - 1];
+        this.firstVisits = new int[size];
+        int[] tour = new int[2 * size - 1];
+        int[] cursors = new int[size];
+        int tourLength = 0;
+        int nextId = 1;
+        int nextChild = 0;
+        this.trees[0] = tree;
+        tree.indexed = true;
+        this.parents[0] = -1;
+        this.childStarts[0] = nextChild;
+        nextChild += tree.subTrees.size();
+        IntStack stack = new IntStack();
+        stack.stack(0);
+        tour[tourLength++] = 0;
+        while (!stack.isEmpty()) {
+            int id = stack.peek();
+            Tree<T> current = this.trees[id];
+            if (cursors[id] == current.subTrees.size()) {
+                stack.unstack();
+                if (!stack.isEmpty()) tour[tourLength++] = stack.peek();
+                continue;
+            }
+            int child = nextId++;
+            Tree<T> subTree = current.subTrees.get(cursors[id]);
+            this.trees[child] = subTree;
+            subTree.indexed = true;
+            this.parents[child] = id;
+            this.depths[child] = this.depths[id] + 1;
+            this.positions[child] = cursors[id] + 1;
+            this.children[this.childStarts[id] + cursors[id]++] = child;
+            this.childStarts[child] = nextChild;
+            nextChild += subTree.subTrees.size();
+            this.firstVisits[child] = tourLength;
+            tour[tourLength++] = child;
+            stack.stack(child);
+        }
+        this.sparseTable = this.buildSparseTable(tour);
+        this.nextOccurrences = new int[size];
+        // Going backwards, so that the subtrees holding an element are chained in depth-first order
+        for (int id = size - 1; id >= 0; id--) {
+            Integer next = this.firstOccurrences.put(this.trees[id].getRoot(), id);
+            this.nextOccurrences[id] = next == null ? -1 : next;
+        }
+    }
+
+    /**
+     * @return {@code true} if the indexed tree and its subtrees weren't changed since this index was built,
+     * {@code false} otherwise
+     */
+    public boolean isUpToDate() {return this.trees[0].version == this.version;}
+
+    /**
+     * @return The number of subtrees in the indexed tree, including itself
+     */
+    @Contract(pure = true)
+    public int size() {return this.trees.length;}
+
+    /**
+     * @param object The element to search for
+     * @return The indexes of the subtrees whose root is the element, in depth-first order
+     */
+    public @NotNull ArrayList<TreeIndex> find(T object) {
+        ArrayList<TreeIndex> found = new ArrayList<>();
+        for (int id = this.firstOccurrence(object); id != -1; id = this.nextOccurrences[id]) {
+            found.add(this.indexOf(id));
+        }
+        return found;
+    }
+
+    /**
+     * @return The index of the smallest subtree containing the subtrees at both indexes
+     * @throws IndexOutOfBoundsException If an index doesn't lead to a subtree
+     */
+    public @NotNull TreeIndex lowestCommonAncestor(@NotNull TreeIndex first, @NotNull TreeIndex second) {
+        return this.indexOf(this.lowestCommonAncestor(this.idOf(first), this.idOf(second)));
+    }
+
+    /**
+     * Finds the smallest subtree containing both the subtree at the index and the other element
+     * @see Tree#findFirstCommonTree(TreeIndex, Object)
+     */
+    public @NotNull Optional<TreeSearchResult<T>> findFirstCommonTree(@NotNull TreeIndex index, T otherObject) {
+        int id = this.idOf(index);
+        int best = -1;
+        for (int other = this.firstOccurrence(otherObject); other != -1; other = this.nextOccurrences[other]) {
+            int ancestor = this.lowestCommonAncestor(id, other);
+            if (best == -1 || this.depths[ancestor] > this.depths[best]) best = ancestor;
+        }
+        if (best == -1) return Optional.empty();
+        return Optional.of(new TreeSearchResult<>(this.trees[best], index.slice(0, this.depths[best])));
+    }
+
+    /**
+     * Finds the deepest subtrees containing all the elements
+     * @see Tree#findSmallestCommonTree(List)
+     */
+    public @NotNull ArrayList<TreeSearchResult<T>> findSmallestCommonTree(@NotNull List<T> objects) {
+        int ancestor = -1;
+        for (T object : objects) {
+            int id = this.firstOccurrence(object);
+            if (id == -1) return new ArrayList<>();
+            if (this.nextOccurrences[id] != -1) return this.findSmallestCommonTrees(objects);
+            ancestor = ancestor == -1 ? id : this.lowestCommonAncestor(ancestor, id);
+        }
+        if (ancestor == -1) return this.findSmallestCommonTrees(objects);
+        return new ArrayList<>(List.of(new TreeSearchResult<>(this.trees[ancestor], this.indexOf(ancestor))));
+    }
+
+    /**
+     * Finds the deepest subtrees containing all the elements when some of them are found several times in the tree.
+     * Each element marks the subtrees holding it, and all their parents, so the subtrees marked by all the elements
+     * are the ones containing them all
+     */
+    private @NotNull ArrayList<TreeSearchResult<T>> findSmallestCommonTrees(@NotNull List<T> objects) {
+        int[] marks = new int[this.trees.length];
+        int[] visits = new int[this.trees.length];
+        int visit = 0;
+        for (T object : objects) {
+            visit++;
+            for (int id = this.firstOccurrence(object); id != -1; id = this.nextOccurrences[id]) {
+                for (int parent = id; parent != -1 && visits[parent] != visit; parent = this.parents[parent]) {
+                    visits[parent] = visit;
+                    marks[parent]++;
+                }
+            }
+        }
+        int maxDepth = -1;
+        for (int id = 0; id < this.trees.length; id++) {
+            if (marks[id] == objects.size()) maxDepth = Math.max(maxDepth, this.depths[id]);
+        }
+        ArrayList<TreeSearchResult<T>> selected = new ArrayList<>();
+        for (int id = 0; id < this.trees.length; id++) {
+            if (marks[id] == objects.size() && this.depths[id] == maxDepth) {
+                selected.add(new TreeSearchResult<>(this.trees[id], this.indexOf(id)));
+            }
+        }
+        return selected;
+    }
+
+    private int lowestCommonAncestor(int first, int second) {
+        int from = Math.min(this.firstVisits[first], this.firstVisits[second]);
+        int to = Math.max(this.firstVisits[first], this.firstVisits[second]);
+        int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        return this.shallowest(this.sparseTable[level][from], this.sparseTable[level][to - (1 << level) + 1]);
+    }
+
+    private int @NotNull [] @NotNull [] buildSparseTable(int @NotNull [] tour) {
+        int[][] table = new int[32 - Integer.numberOfLeadingZeros(tour.length)][];
+        table[0] = tour;
+        for (int level = 1; level < table.length; level++) {
+            int half = 1 << (level - 1);
+            int[] previous = table[level - 1];
+            int[] current = new int[tour.length - (1 << level) + 1];
+            for (int i = 0; i < current.length; i++) current[i] = this.shallowest(previous[i], previous[i + half]);
+            table[level] = current;
+        }
+        return table;
+    }
+
+    @Contract(pure = true)
+    private int shallowest(int first, int second) {return this.depths[first] <= this.depths[second] ? first : second;}
+
+    private int firstOccurrence(T object) {
+        Integer id = this.firstOccurrences.get(object);
+        return id == null ? -1 : id;
+    }
+
+    private int idOf(@NotNull TreeIndex index) {
+        int id = 0;
+        for (int level = 0; level < index.length; level++) {
+            int position = index.indexes[index.offset + level] - 1;
+            int childCount = this.childCount(id);
+            if (position < 0 || position >= childCount) throw new IndexOutOfBoundsException(
+                    "subtree index " + position + " out of bounds for " + childCount + " trees!\n"
+                            + "Current index: " + index
+            );
+            id = this.children[this.childStarts[id] + position];
+        }
+        return id;
+    }
+
+    /**
+     * The children of the subtrees are stored in the order the subtrees are numbered, so the children of a subtree
+     * end where the children of the next one start
+     */
+    private int childCount(int id) {
+        int end = id + 1 < this.childStarts.length ? this.childStarts[id + 1] : this.children.length;
+        return end - this.childStarts[id];
+    }
+
+    private @NotNull TreeIndex indexOf(int id) {
+        int[] indexes = new int[this.depths[id]];
+        for (int level = indexes.length - 1; level >= 0; level--) {
+            indexes[level] = this.positions[id];
+            id = this.parents[id];
+        }
+        return new TreeIndex(indexes, 0, indexes.length);
+    }
+
+    private static int count(@NotNull Tree<?> tree) {
+        int count = 0;
+        ArrayList<Tree<?>> pending = new ArrayList<>(List.of(tree));
+        while (!pending.isEmpty()) {
+            Tree<?> current = pending.remove(pending.size() - 1);
+            count++;
+            pending.addAll(current.subTrees);
+        }
+        return count;
+    }
+}
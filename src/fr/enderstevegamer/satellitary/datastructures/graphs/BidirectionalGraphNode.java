@@ -25,8 +25,12 @@ public class BidirectionalGraphNode<T> extends GraphNode<T> {
      */
     @Override
     public void link(@NotNull GraphNode<T> other) {
-        other.linked.add(this);
-        this.linked.add(other);
+        if (this.isLinked(other)) return;
+        this.fireBeforeLink(other);
+        // The other node first, so that a node refusing the link leaves both nodes unchanged
+        other.addLink(this);
+        this.addLink(other);
+        this.fireLinked(other);
     }
 
     /**
@@ -35,7 +39,21 @@ public class BidirectionalGraphNode<T> extends GraphNode<T> {
      */
     @Override
     public void unlink(@NotNull GraphNode<T> other) {
-        other.linked.remove(this);
-        this.linked.remove(other);
+        if (!this.removeLink(other)) return;
+        other.removeLink(this);
+        this.fireUnlinked(other);
+    }
+
+    /**
+     * Unlinks all the nodes linked to this one, in a time proportional to their number
+     */
+    @Override
+    public void unlinkAll() {
+        ArrayList<GraphNode<T>> unlinked = new ArrayList<>(this.linked);
+        for (GraphNode<T> other : unlinked) {
+            if (other != this) other.removeLink(this);
+        }
+        this.clearLinks();
+        for (GraphNode<T> other : unlinked) this.fireUnlinked(other);
     }
 }
@@ -0,0 +1,185 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     A thread-safe version of {@link BidirectionalGraphNode}, which any number of threads can link and unlink
+ * </p>
+ * <p>
+ *     Linking or unlinking two nodes changes both of them atomically, by holding the locks of both nodes. The locks
+ *     are shared between the nodes in a fixed set of stripes chosen by the node IDs, and are always taken in the same
+ *     order, so threads linking nodes from opposite sides can't deadlock
+ * </p>
+ * <p>
+ *     The linked nodes are stored in a concurrent set. Reading them never blocks: {@link #getLinked()} and
+ *     {@link #neighbors()} are weakly consistent, and may or may not see the links changed while they are read
+ * </p>
+ * <p>
+ *     A concurrent node is only linked to other concurrent nodes: linking it to a {@link BidirectionalGraphNode}
+ *     from either side throws an {@link IllegalArgumentException} and leaves both nodes unchanged
+ * </p>
+ * <p>
+ *     The links are changed by many threads at once, so a concurrent node doesn't notify any {@link GraphListener},
+ *     and can't be tracked by a {@link ConnectivityIndex} or a {@link TopologicalOrder}
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public class ConcurrentBidirectionalGraphNode<T> extends GraphNode<T> {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    private static final Object[] STRIPES = new Object[256];
+
+    static {
+        for (int i = 0; i < STRIPES.length; i++) STRIPES[i] = new Object();
+    }
+
+    private final long id = NEXT_ID.getAndIncrement();
+    private final Set<GraphNode<T>> neighbors = ConcurrentHashMap.newKeySet();
+
+    public ConcurrentBidirectionalGraphNode(T value) {super(value);}
+
+    public ConcurrentBidirectionalGraphNode(T value, @NotNull ArrayList<GraphNode<T>> linked) {
+        this(value);
+        link(linked);
+    }
+
+    /**
+     * @return The ID of the node, which chooses the lock stripe of the node
+     */
+    @Contract(pure = true)
+    public long getId() {return this.id;}
+
+    /**
+     * Returns a copy of the list of the nodes that this node is connected to
+     * <p> Changing the returned list doesn't change the links of the node </p>
+     * <p>
+     *     The links are kept in a concurrent set rather than in the list inherited from {@link GraphNode}, which stays
+     *     empty, so each call copies the set in a time proportional to the number of links. {@link #neighbors()}
+     *     reads the links without copying them. The {@link GraphTraversal}s call this method once per node they visit
+     * </p>
+     * @return An {@link ArrayList} of the nodes that this node is connected to
+     */
+    @Override
+    public ArrayList<GraphNode<T>> getLinked() {return new ArrayList<>(this.neighbors);}
+
+    /**
+     * @return A weakly consistent, unmodifiable view of the nodes that this node is connected to
+     */
+    public @NotNull Set<GraphNode<T>> neighbors() {return Collections.unmodifiableSet(this.neighbors);}
+
+    /**
+     * Links a node to this one, changing both nodes atomically
+     * @param other The node to link to this one, which must be a {@link ConcurrentBidirectionalGraphNode}
+     */
+    @Override
+    public void link(@NotNull GraphNode<T> other) {
+        ConcurrentBidirectionalGraphNode<T> node = checkConcurrent(other);
+        if (node == this) {
+            this.neighbors.add(this);
+            return;
+        }
+        Object first = this.stripe(node, true);
+        Object second = this.stripe(node, false);
+        synchronized (first) {
+            synchronized (second) {
+                if (this.neighbors.add(node)) node.neighbors.add(this);
+            }
+        }
+    }
+
+    /**
+     * Unlinks a node from this one, changing both nodes atomically
+     * @param other The node to unlink from this one, which must be a {@link ConcurrentBidirectionalGraphNode}
+     */
+    @Override
+    public void unlink(@NotNull GraphNode<T> other) {
+        ConcurrentBidirectionalGraphNode<T> node = checkConcurrent(other);
+        if (node == this) {
+            this.neighbors.remove(this);
+            return;
+        }
+        Object first = this.stripe(node, true);
+        Object second = this.stripe(node, false);
+        synchronized (first) {
+            synchronized (second) {
+                if (this.neighbors.remove(node)) node.neighbors.remove(this);
+            }
+        }
+    }
+
+    /**
+     * Unlinks all the nodes linked to this one, each of them atomically
+     * <p> Nodes linked by other threads while this runs may stay linked </p>
+     */
+    @Override
+    public void unlinkAll() {
+        for (GraphNode<T> node : this.neighbors) unlink(node);
+    }
+
+    /**
+     * @param other The node to look for
+     * @return {@code true} if the node is linked to this one, {@code false} otherwise
+     */
+    @Override
+    public boolean isLinked(@NotNull GraphNode<T> other) {return this.neighbors.contains(other);}
+
+    /**
+     * Concurrent nodes don't notify listeners
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addListener(@NotNull GraphListener<T> listener) {
+        throw new UnsupportedOperationException("Concurrent nodes don't notify listeners!");
+    }
+
+    /**
+     * Concurrent nodes keep their links in their own set, and can't be linked to other nodes
+     * @throws IllegalArgumentException Always
+     */
+    @Override
+    protected boolean addLink(@NotNull GraphNode<T> other) {throw mixedLink();}
+
+    /**
+     * Concurrent nodes keep their links in their own set, and can't be unlinked from other nodes
+     * @throws IllegalArgumentException Always
+     */
+    @Override
+    protected boolean removeLink(@NotNull GraphNode<T> other) {throw mixedLink();}
+
+    /**
+     * Concurrent nodes keep their links in their own set, which is only emptied by {@link #unlinkAll()}
+     * @throws IllegalArgumentException Always
+     */
+    @Override
+    protected void clearLinks() {throw mixedLink();}
+
+    /**
+     * Returns one of the two locks guarding a link between this node and the other one. The stripe of a node is
+     * given by its ID, and the stripe with the lowest index is always locked first. If both nodes share a stripe, the
+     * same lock is returned twice, which is fine as monitors are reentrant
+     */
+    private @NotNull Object stripe(@NotNull ConcurrentBidirectionalGraphNode<T> other, boolean first) {
+        int thisStripe = (int) (this.id & (STRIPES.length - 1));
+        int otherStripe = (int) (other.id & (STRIPES.length - 1));
+        return STRIPES[first ? Math.min(thisStripe, otherStripe) : Math.max(thisStripe, otherStripe)];
+    }
+
+    private static <T> @NotNull ConcurrentBidirectionalGraphNode<T> checkConcurrent(@NotNull GraphNode<T> node) {
+        if (node instanceof ConcurrentBidirectionalGraphNode<T> concurrentNode) return concurrentNode;
+        throw mixedLink();
+    }
+
+    @Contract(pure = true)
+    private static @NotNull IllegalArgumentException mixedLink() {
+        return new IllegalArgumentException(
+                "A concurrent node can only be linked to or unlinked from other concurrent nodes!"
+        );
+    }
+}
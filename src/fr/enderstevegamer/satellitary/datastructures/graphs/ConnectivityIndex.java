@@ -0,0 +1,185 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.Queue;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * <p>
+ *     An index of the connected components of a graph made of {@link BidirectionalGraphNode}s, kept up to date as the
+ *     graph changes
+ * </p>
+ * <p>
+ *     The components are stored in a union-find structure with path compression and union by rank, so
+ *     {@link ConnectivityIndex#connected(GraphNode, GraphNode)} takes a nearly constant time. The index listens to the
+ *     links of all the nodes it tracks: linking two nodes merges their components, and linking a tracked node to a new
+ *     one starts tracking the whole component of the new node. Unlinking may split a component, which a union-find
+ *     can't do, so it only marks the index as outdated, and the components are rebuilt from the links of the tracked
+ *     nodes the next time they are queried
+ * </p>
+ * <p>
+ *     The index keeps the tracked nodes alive until {@link ConnectivityIndex#detach()} is called. It can't track
+ *     {@link ConcurrentBidirectionalGraphNode}s, which don't notify listeners
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public class ConnectivityIndex<T> implements GraphListener<T> {
+    private final IdentityHashMap<GraphNode<T>, Integer> ids = new IdentityHashMap<>();
+    private final ArrayList<GraphNode<T>> nodes = new ArrayList<>();
+    private int[] parents = new int[16];
+    private byte[] ranks = new byte[16];
+    private int componentCount;
+    private boolean outdated;
+
+    /**
+     * Creates a {@link ConnectivityIndex} tracking the nodes connected to the given ones
+     * @param nodes The nodes to start tracking, with all the nodes connected to them
+     */
+    public ConnectivityIndex(@NotNull Collection<? extends GraphNode<T>> nodes) {
+        for (GraphNode<T> node : nodes) this.track(node);
+    }
+
+    /**
+     * Creates a {@link ConnectivityIndex} tracking the nodes connected to the given one
+     * @param node The node to start tracking, with all the nodes connected to it
+     */
+    public ConnectivityIndex(@NotNull GraphNode<T> node) {this(List.of(node));}
+
+    /**
+     * Starts tracking the node and all the nodes connected to it
+     * @param node The node to track
+     * @throws IllegalArgumentException If the node is a {@link ConcurrentBidirectionalGraphNode}
+     */
+    public void track(@NotNull GraphNode<T> node) {
+        if (this.ids.containsKey(node)) return;
+        if (node instanceof ConcurrentBidirectionalGraphNode) {
+            throw new IllegalArgumentException("Concurrent nodes don't notify listeners, so they can't be tracked!");
+        }
+        int first = this.nodes.size();
+        this.add(node);
+        Queue<GraphNode<T>> pending = new Queue<>();
+        pending.queue(node);
+        while (!pending.isEmpty()) {
+            GraphNode<T> current = pending.unqueue();
+            for (GraphNode<T> other : current.getLinked()) {
+                if (this.ids.containsKey(other)) {
+                    // The new component was just linked to an already tracked one
+                    this.union(first, this.ids.get(other));
+                    continue;
+                }
+                this.union(first, this.add(other));
+                pending.queue(other);
+            }
+        }
+    }
+
+    /**
+     * Checks whether two nodes are connected by a path, tracking them if they weren't yet
+     * @return {@code true} if there is a path between the nodes, {@code false} otherwise
+     */
+    public boolean connected(@NotNull GraphNode<T> first, @NotNull GraphNode<T> second) {
+        this.track(first);
+        this.track(second);
+        this.refresh();
+        return this.find(this.ids.get(first)) == this.find(this.ids.get(second));
+    }
+
+    /**
+     * @return The number of connected components among the tracked nodes
+     */
+    public int componentCount() {
+        this.refresh();
+        return this.componentCount;
+    }
+
+    /**
+     * @return The number of tracked nodes
+     */
+    @Contract(pure = true)
+    public int size() {return this.nodes.size();}
+
+    /**
+     * Stops listening to the tracked nodes and forgets them
+     */
+    public void detach() {
+        for (GraphNode<T> node : this.nodes) node.removeListener(this);
+        this.nodes.clear();
+        this.ids.clear();
+        this.componentCount = 0;
+        this.outdated = false;
+    }
+
+    @Override
+    public void onLink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {
+        this.track(node);
+        this.track(other);
+        if (!this.outdated) this.union(this.ids.get(node), this.ids.get(other));
+    }
+
+    @Override
+    public void onUnlink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {
+        if (node != other) this.outdated = true;
+    }
+
+    /**
+     * Rebuilds the components from the links of the tracked nodes if a link was removed since the last rebuild
+     */
+    private void refresh() {
+        if (!this.outdated) return;
+        this.outdated = false;
+        int size = this.nodes.size();
+        for (int i = 0; i < size; i++) this.parents[i] = i;
+        Arrays.fill(this.ranks, 0, size, (byte) 0);
+        this.componentCount = size;
+        for (int i = 0; i < size; i++) {
+            for (GraphNode<T> other : this.nodes.get(i).getLinked()) {
+                Integer id = this.ids.get(other);
+                if (id != null) this.union(i, id);
+            }
+        }
+    }
+
+    private int add(@NotNull GraphNode<T> node) {
+        int id = this.nodes.size();
+        if (id == this.parents.length) {
+            this.parents = Arrays.copyOf(this.parents, id << 1);
+            this.ranks = Arrays.copyOf(this.ranks, id << 1);
+        }
+        this.parents[id] = id;
+        this.ranks[id] = 0;
+        this.ids.put(node, id);
+        this.nodes.add(node);
+        this.componentCount++;
+        node.addListener(this);
+        return id;
+    }
+
+    private int find(int id) {
+        while (this.parents[id] != id) {
+            // Path halving: every other node on the path is moved up to its grandparent
+            this.parents[id] = this.parents[this.parents[id]];
+            id = this.parents[id];
+        }
+        return id;
+    }
+
+    private void union(int first, int second) {
+        int firstRoot = this.find(first);
+        int secondRoot = this.find(second);
+        if (firstRoot == secondRoot) return;
+        if (this.ranks[firstRoot] < this.ranks[secondRoot]) {
+            int root = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = root;
+        }
+        this.parents[secondRoot] = firstRoot;
+        if (this.ranks[firstRoot] == this.ranks[secondRoot]) this.ranks[firstRoot]++;
+        this.componentCount--;
+    }
+}
@@ -0,0 +1,286 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ *     An immutable graph stored in compressed sparse row form
+ * </p>
+ * <p>
+ *     The nodes are numbered from {@code 0} to {@code nodeCount() - 1}. The targets of the links of all the nodes are
+ *     stored one after the other in a single {@code int} array, and the links of a node are found between two offsets
+ *     of another array. The values of the nodes are stored in a side array. A graph of any size is therefore made of
+ *     only three arrays, and going through the links of a node reads consecutive memory
+ * </p>
+ * <p>
+ *     A {@link CsrGraph} is created from a network of {@link GraphNode}s with {@link CsrGraph#freeze(Collection)}, or
+ *     directly with a {@link Builder}
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public final class CsrGraph<T> {
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] values;
+
+    private CsrGraph(int @NotNull [] offsets, int @NotNull [] targets, Object @NotNull [] values) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.values = values;
+    }
+
+    /**
+     * <p>
+     *     Creates a {@link CsrGraph} containing the nodes reachable from the roots and all their links
+     * </p>
+     * <p>
+     *     The nodes are numbered in the order they are discovered by a breadth-first search, so the roots get the
+     *     first numbers, in the order of the collection. The links of {@link BidirectionalGraphNode}s are stored in
+     *     both directions
+     * </p>
+     * @param roots The nodes to start from
+     * @return The frozen graph
+     */
+    public static <T> @NotNull CsrGraph<T> freeze(@NotNull Collection<? extends GraphNode<T>> roots) {
+        IdentityHashMap<GraphNode<T>, Integer> ids = new IdentityHashMap<>();
+        ArrayList<GraphNode<T>> nodes = new ArrayList<>();
+        for (GraphNode<T> root : roots) {
+            if (ids.putIfAbsent(root, nodes.size()) == null) nodes.add(root);
+        }
+        long edgeCount = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            List<GraphNode<T>> linked = nodes.get(i).getLinked();
+            edgeCount += linked.size();
+            for (GraphNode<T> other : linked) {
+                if (ids.putIfAbsent(other, nodes.size()) == null) nodes.add(other);
+            }
+        }
+        if (edgeCount > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("The graph has too many links!");
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[(int) edgeCount];
+        Object[] values = new Object[nodes.size()];
+        int edge = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            GraphNode<T> node = nodes.get(i);
+            values[i] = node.getValue();
+            for (GraphNode<T> other : node.getLinked()) targets[edge++] = ids.get(other);
+            offsets[i + 1] = edge;
+        }
+        return new CsrGraph<>(offsets, targets, values);
+    }
+
+    /**
+     * Creates a {@link CsrGraph} containing the nodes reachable from the root and all their links
+     * @see CsrGraph#freeze(Collection)
+     */
+    public static <T> @NotNull CsrGraph<T> freeze(@NotNull GraphNode<T> root) {return freeze(List.of(root));}
+
+    /**
+     * @return The number of nodes of the graph
+     */
+    @Contract(pure = true)
+    public int nodeCount() {return this.values.length;}
+
+    /**
+     * @return The number of links of the graph, counting both directions of bi-directional links
+     */
+    @Contract(pure = true)
+    public int edgeCount() {return this.targets.length;}
+
+    /**
+     * @param node The number of the node
+     * @return The value of the node
+     */
+    @SuppressWarnings("unchecked")
+    public T getValue(int node) {return (T) this.values[node];}
+
+    /**
+     * @param node The number of the node
+     * @return The number of links going out of the node
+     */
+    public int degree(int node) {return this.offsets[node + 1] - this.offsets[node];}
+
+    /**
+     * @param node The number of the node
+     * @param index The index of the link among the links of the node
+     * @return The number of the node the link goes to
+     */
+    public int neighbor(int node, int index) {
+        if (index < 0 || index >= this.degree(node)) throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for degree " + this.degree(node) + "!"
+        );
+        return this.targets[this.offsets[node] + index];
+    }
+
+    /**
+     * Returns the index of the first link of the node, to go through the links of the node with
+     * {@link CsrGraph#edgeTarget(int)} without any allocation
+     * @param node The number of the node
+     * @return The index of the first link of the node
+     */
+    public int edgeStart(int node) {return this.offsets[node];}
+
+    /**
+     * @param node The number of the node
+     * @return The index following the last link of the node
+     */
+    public int edgeEnd(int node) {return this.offsets[node + 1];}
+
+    /**
+     * @param edge The index of a link, between {@link CsrGraph#edgeStart(int)} and {@link CsrGraph#edgeEnd(int)}
+     * @return The number of the node the link goes to
+     */
+    public int edgeTarget(int edge) {return this.targets[edge];}
+
+    /**
+     * Runs the action on the number of each node the node links to
+     * @param node The number of the node
+     * @param action The action to run
+     */
+    public void forEachNeighbor(int node, @NotNull IntConsumer action) {
+        for (int edge = this.offsets[node], end = this.offsets[node + 1]; edge < end; edge++) {
+            action.accept(this.targets[edge]);
+        }
+    }
+
+    /**
+     * @param node The number of the node
+     * @return The numbers of the nodes the node links to
+     */
+    public @NotNull IntStream neighbors(int node) {
+        return Arrays.stream(this.targets, this.offsets[node], this.offsets[node + 1]);
+    }
+
+    /**
+     * @return A {@link CsrGraph} with the same nodes and values, and all the links reversed
+     */
+    public @NotNull CsrGraph<T> transpose() {
+        int nodeCount = this.nodeCount();
+        int[] offsets = new int[nodeCount + 1];
+        for (int target : this.targets) offsets[target + 1]++;
+        for (int i = 0; i < nodeCount; i++) offsets[i + 1] += offsets[i];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] targets = new int[this.targets.length];
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = this.offsets[node]; edge < this.offsets[node + 1]; edge++) {
+                targets[next[this.targets[edge]]++] = node;
+            }
+        }
+        return new CsrGraph<>(offsets, targets, this.values);
+    }
+
+    /**
+     * <p>
+     *     A class creating a {@link CsrGraph} without creating any {@link GraphNode}
+     * </p>
+     * <p>
+     *     The links are stored in two {@code int} arrays until {@link Builder#build()} sorts them by source node. The
+     *     links of a node keep the order they were added in
+     * </p>
+     * @param <T> The type of the elements contained in the graph
+     */
+    public static final class Builder<T> {
+        private Object[] values;
+        private int nodeCount;
+        private int[] sources;
+        private int[] destinations;
+        private int edgeCount;
+
+        /**
+         * Creates an empty {@link Builder}
+         * @param expectedNodes The number of nodes the graph is expected to have
+         * @param expectedEdges The number of links the graph is expected to have
+         */
+        public Builder(int expectedNodes, int expectedEdges) {
+            this.values = new Object[Math.max(16, expectedNodes)];
+            this.sources = new int[Math.max(16, expectedEdges)];
+            this.destinations = new int[this.sources.length];
+        }
+
+        /**
+         * Creates an empty {@link Builder}
+         */
+        public Builder() {this(16, 16);}
+
+        /**
+         * Adds a node to the graph
+         * @param value The value of the node
+         * @return The number of the node
+         */
+        public int addNode(T value) {
+            if (this.nodeCount == this.values.length) this.values = Arrays.copyOf(this.values, grow(this.nodeCount));
+            this.values[this.nodeCount] = value;
+            return this.nodeCount++;
+        }
+
+        /**
+         * Adds a link going from a node to another
+         * @param from The number of the node the link starts from
+         * @param to The number of the node the link goes to
+         * @return This {@link Builder}
+         */
+        public @NotNull Builder<T> addEdge(int from, int to) {
+            this.checkNode(from);
+            this.checkNode(to);
+            if (this.edgeCount == this.sources.length) {
+                int capacity = grow(this.edgeCount);
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.destinations = Arrays.copyOf(this.destinations, capacity);
+            }
+            this.sources[this.edgeCount] = from;
+            this.destinations[this.edgeCount++] = to;
+            return this;
+        }
+
+        /**
+         * Adds a link in both directions between two nodes
+         * @param first The number of the first node
+         * @param second The number of the second node
+         * @return This {@link Builder}
+         */
+        public @NotNull Builder<T> addBidirectionalEdge(int first, int second) {
+            return this.addEdge(first, second).addEdge(second, first);
+        }
+
+        /**
+         * @return The number of nodes added so far
+         */
+        @Contract(pure = true)
+        public int nodeCount() {return this.nodeCount;}
+
+        /**
+         * Creates the {@link CsrGraph}. The {@link Builder} can still be used afterwards
+         * @return The built graph
+         */
+        public @NotNull CsrGraph<T> build() {
+            int[] offsets = new int[this.nodeCount + 1];
+            for (int i = 0; i < this.edgeCount; i++) offsets[this.sources[i] + 1]++;
+            for (int i = 0; i < this.nodeCount; i++) offsets[i + 1] += offsets[i];
+            int[] next = Arrays.copyOf(offsets, this.nodeCount);
+            int[] targets = new int[this.edgeCount];
+            for (int i = 0; i < this.edgeCount; i++) targets[next[this.sources[i]]++] = this.destinations[i];
+            return new CsrGraph<>(offsets, targets, Arrays.copyOf(this.values, this.nodeCount));
+        }
+
+        private void checkNode(int node) {
+            if (node < 0 || node >= this.nodeCount) {
+                throw new IllegalArgumentException("There is no node " + node + "!");
+            }
+        }
+
+        @Contract(pure = true)
+        private static int grow(int capacity) {
+            if (capacity >= Integer.MAX_VALUE - 8) throw new IllegalStateException("The graph is too big!");
+            return (int) Math.min((long) capacity + (capacity >> 1) + 1, Integer.MAX_VALUE - 8);
+        }
+    }
+}
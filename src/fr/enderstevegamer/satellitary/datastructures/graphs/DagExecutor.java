@@ -0,0 +1,194 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.Queue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A class running a task for each node of a graph made of {@link OrientedGraphNode}s without cycles, each node
+ *     running after all the nodes linking to it
+ * </p>
+ * <p>
+ *     Each node counts the nodes it still waits for. When a task finishes, the counters of the nodes it links to are
+ *     decremented, and the nodes that don't wait for anything anymore are submitted to the {@link Executor} right
+ *     away. Independent branches of the graph therefore run in parallel, without waiting for each other at any point
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public class DagExecutor<T> {
+    private final Executor executor;
+    private final TopologicalOrder<T> order;
+
+    /**
+     * Creates a {@link DagExecutor} running the tasks on the given {@link Executor}, a {@link ForkJoinPool} or a
+     * {@link fr.enderstevegamer.satellitary.scheduling.WorkStealingPool} for example
+     * <p> The graph is checked for cycles before each run. Use
+     * {@link DagExecutor#DagExecutor(Executor, TopologicalOrder)} to avoid it on graphs that are run often </p>
+     * @param executor The {@link Executor} running the tasks
+     */
+    public DagExecutor(@NotNull Executor executor) {
+        this.executor = executor;
+        this.order = null;
+    }
+
+    /**
+     * Creates a {@link DagExecutor} running the tasks on the given {@link Executor}, for graphs kept in a
+     * {@link TopologicalOrder}. The order refuses any link creating a cycle, so the graph doesn't need to be checked
+     * before each run
+     * @param executor The {@link Executor} running the tasks
+     * @param order The {@link TopologicalOrder} of the graph, which starts tracking the roots of each run
+     */
+    public DagExecutor(@NotNull Executor executor, @NotNull TopologicalOrder<T> order) {
+        this.executor = executor;
+        this.order = order;
+    }
+
+    /**
+     * Creates a {@link DagExecutor} running the tasks on the common {@link ForkJoinPool}
+     */
+    public DagExecutor() {this(ForkJoinPool.commonPool());}
+
+    /**
+     * Runs the task on each node reachable from the roots, each node after all the nodes linking to it
+     * <p> The graph must not be changed until the returned future is completed </p>
+     * @param roots The nodes to start from
+     * @param task The task to run on each node
+     * @return A future completed once all the tasks ran, or completed exceptionally with the exception of the first
+     * failed task, in which case the nodes waiting for it aren't run
+     * @throws IllegalArgumentException If the graph contains a cycle
+     */
+    public @NotNull CompletableFuture<Void> execute(@NotNull Collection<? extends GraphNode<T>> roots,
+                                                    @NotNull Consumer<? super GraphNode<T>> task) {
+        // A tracked node only leads to tracked nodes, which the order keeps free of cycles
+        if (this.order != null) for (GraphNode<T> root : roots) this.order.track(root);
+        IdentityHashMap<GraphNode<T>, AtomicInteger> waiting = new IdentityHashMap<>();
+        ArrayList<GraphNode<T>> nodes = new ArrayList<>();
+        for (GraphNode<T> root : roots) {
+            if (waiting.putIfAbsent(root, new AtomicInteger()) == null) nodes.add(root);
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            for (GraphNode<T> other : nodes.get(i).getLinked()) {
+                AtomicInteger count = waiting.get(other);
+                if (count == null) {
+                    waiting.put(other, new AtomicInteger(1));
+                    nodes.add(other);
+                }
+                else count.incrementAndGet();
+            }
+        }
+        ArrayList<GraphNode<T>> ready = new ArrayList<>();
+        for (GraphNode<T> node : nodes) if (waiting.get(node).get() == 0) ready.add(node);
+        if (this.order == null) checkAcyclic(nodes, waiting, ready);
+        return this.start(waiting, ready, task, nodes.size());
+    }
+
+    /**
+     * Runs the task on each node reachable from the root, each node after all the nodes linking to it
+     * @see DagExecutor#execute(Collection, Consumer)
+     */
+    public @NotNull CompletableFuture<Void> execute(@NotNull GraphNode<T> root,
+                                                    @NotNull Consumer<? super GraphNode<T>> task) {
+        return execute(List.of(root), task);
+    }
+
+    /**
+     * Runs the task on each node tracked by the {@link TopologicalOrder} of this executor, each node after all the
+     * nodes linking to it. The number of nodes each node waits for is read from the order, without going through the
+     * graph first
+     * <p> The graph must not be changed until the returned future is completed </p>
+     * @param task The task to run on each node
+     * @return A future completed once all the tasks ran, or completed exceptionally with the exception of the first
+     * failed task, in which case the nodes waiting for it aren't run
+     * @throws IllegalStateException If this executor wasn't given a {@link TopologicalOrder}
+     */
+    public @NotNull CompletableFuture<Void> execute(@NotNull Consumer<? super GraphNode<T>> task) {
+        if (this.order == null) throw new IllegalStateException("This executor has no topological order!");
+        IdentityHashMap<GraphNode<T>, AtomicInteger> waiting = new IdentityHashMap<>();
+        ArrayList<GraphNode<T>> ready = new ArrayList<>();
+        for (GraphNode<T> node : this.order.nodes()) {
+            int predecessors = this.order.predecessorCount(node);
+            waiting.put(node, new AtomicInteger(predecessors));
+            if (predecessors == 0) ready.add(node);
+        }
+        return this.start(waiting, ready, task, waiting.size());
+    }
+
+    private @NotNull CompletableFuture<Void> start(@NotNull IdentityHashMap<GraphNode<T>, AtomicInteger> waiting,
+                                                   @NotNull List<GraphNode<T>> ready,
+                                                   @NotNull Consumer<? super GraphNode<T>> task, int nodeCount) {
+        Run run = new Run(waiting, task, nodeCount);
+        if (nodeCount == 0) run.future.complete(null);
+        for (GraphNode<T> node : ready) run.submit(node);
+        return run.future;
+    }
+
+    /**
+     * Simulates the run with Kahn's algorithm, as a node on a cycle would never run. Only needed without a
+     * {@link TopologicalOrder}
+     */
+    private static <T> void checkAcyclic(@NotNull List<GraphNode<T>> nodes,
+                                         @NotNull IdentityHashMap<GraphNode<T>, AtomicInteger> waiting,
+                                         @NotNull List<GraphNode<T>> ready) {
+        IdentityHashMap<GraphNode<T>, int[]> remaining = new IdentityHashMap<>();
+        for (GraphNode<T> node : nodes) remaining.put(node, new int[] {waiting.get(node).get()});
+        Queue<GraphNode<T>> pending = new Queue<>();
+        pending.queueAll(ready);
+        int sorted = 0;
+        while (!pending.isEmpty()) {
+            GraphNode<T> node = pending.unqueue();
+            sorted++;
+            for (GraphNode<T> other : node.getLinked()) if (--remaining.get(other)[0] == 0) pending.queue(other);
+        }
+        if (sorted < nodes.size()) throw new IllegalArgumentException("The graph contains a cycle!");
+    }
+
+    /**
+     * The state of one call to {@link DagExecutor#execute(Collection, Consumer)}
+     */
+    private final class Run {
+        private final IdentityHashMap<GraphNode<T>, AtomicInteger> waiting;
+        private final Consumer<? super GraphNode<T>> task;
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Run(@NotNull IdentityHashMap<GraphNode<T>, AtomicInteger> waiting,
+                    @NotNull Consumer<? super GraphNode<T>> task, int nodeCount) {
+            this.waiting = waiting;
+            this.task = task;
+            this.remaining = new AtomicInteger(nodeCount);
+        }
+
+        private void submit(@NotNull GraphNode<T> node) {
+            try {
+                executor.execute(() -> this.run(node));
+            } catch (RuntimeException e) {
+                this.future.completeExceptionally(e);
+            }
+        }
+
+        private void run(@NotNull GraphNode<T> node) {
+            if (this.future.isDone()) return;
+            try {
+                this.task.accept(node);
+            } catch (Throwable t) {
+                this.future.completeExceptionally(t);
+                return;
+            }
+            // The map is only read once the run started, so it can be shared between the threads
+            for (GraphNode<T> other : node.getLinked()) {
+                if (this.waiting.get(other).decrementAndGet() == 0) this.submit(other);
+            }
+            if (this.remaining.decrementAndGet() == 0) this.future.complete(null);
+        }
+    }
+}
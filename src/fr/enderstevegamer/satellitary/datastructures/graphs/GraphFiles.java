@@ -0,0 +1,96 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.io.Codec;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * <p>
+ *     Methods saving graphs in a binary file, and mapping them back in memory
+ * </p>
+ * <p>
+ *     A graph file starts with a header holding the number of nodes, the number of links and the size of the values.
+ *     Then come the links in compressed sparse row form, like in a {@link CsrGraph}: the offset of the first link of
+ *     each node, and the targets of all the links. Then come the offset of each value, and the values encoded by a
+ *     {@link Codec}. All the numbers are big-endian
+ * </p>
+ * <p>
+ *     Graphs are written with a {@link GraphWriter}, and read with {@link GraphFiles#map(Codec, Path)}, which maps
+ *     the file in memory and only decodes the values that are asked for, so opening a graph costs about as much as
+ *     paging in the parts of the file that are used
+ * </p>
+ */
+public final class GraphFiles {
+    static final int MAGIC = 0x53475246;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    // The largest value that can be stored, so that it always fits in a mapped region
+    static final int MAX_VALUE_SIZE = 1 << 30;
+
+    @Contract(pure = true)
+    private GraphFiles() {}
+
+    /**
+     * Writes the graph to a file, replacing it if it exists
+     * @param graph The {@link CsrGraph} to save
+     * @param codec The {@link Codec} encoding the values of the nodes
+     * @param path The {@link Path} of the file
+     * @throws IOException If the file can't be written to
+     */
+    public static <T> void write(@NotNull CsrGraph<T> graph, @NotNull Codec<? super T> codec,
+                                 @NotNull Path path) throws IOException {
+        try (GraphWriter<T> writer = new GraphWriter<>(path, codec, graph.nodeCount(), graph.edgeCount())) {
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                writer.writeNode(graph.getValue(node), graph.neighbors(node).toArray());
+            }
+        }
+    }
+
+    /**
+     * Writes the nodes reachable from the roots to a file, replacing it if it exists. The nodes are numbered like in
+     * {@link CsrGraph#freeze(Collection)}
+     * @param roots The nodes to start from
+     * @param codec The {@link Codec} encoding the values of the nodes
+     * @param path The {@link Path} of the file
+     * @throws IOException If the file can't be written to
+     */
+    public static <T> void write(@NotNull Collection<? extends GraphNode<T>> roots, @NotNull Codec<? super T> codec,
+                                 @NotNull Path path) throws IOException {
+        write(CsrGraph.freeze(roots), codec, path);
+    }
+
+    /**
+     * Maps a graph file in memory
+     * @param codec The {@link Codec} decoding the values of the nodes
+     * @param path The {@link Path} of the graph file
+     * @return A {@link MappedGraph} reading the file
+     * @throws IOException If the file can't be read or doesn't hold a valid graph
+     */
+    public static <T> @NotNull MappedGraph<T> map(@NotNull Codec<? extends T> codec,
+                                                  @NotNull Path path) throws IOException {
+        return new MappedGraph<>(codec, path);
+    }
+
+    @Contract(pure = true)
+    static long offsetsPosition() {return HEADER_SIZE;}
+
+    @Contract(pure = true)
+    static long targetsPosition(int nodeCount) {return offsetsPosition() + (nodeCount + 1L) * Integer.BYTES;}
+
+    /**
+     * The value offsets are aligned on 8 bytes, so that none of them crosses two mapped regions
+     */
+    @Contract(pure = true)
+    static long valueOffsetsPosition(int nodeCount, int edgeCount) {
+        return (targetsPosition(nodeCount) + (long) edgeCount * Integer.BYTES + 7) & ~7L;
+    }
+
+    @Contract(pure = true)
+    static long valuesPosition(int nodeCount, int edgeCount) {
+        return valueOffsetsPosition(nodeCount, edgeCount) + (nodeCount + 1L) * Long.BYTES;
+    }
+}
@@ -0,0 +1,36 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>
+ *     A listener notified when the links of a {@link GraphNode} change
+ * </p>
+ * <p>
+ *     A listener registered on both ends of a link is only notified once. The notifications are sent by the thread
+ *     changing the links, after they are changed, except for {@link GraphListener#beforeLink(GraphNode, GraphNode)}
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public interface GraphListener<T> {
+    /**
+     * Called before a link is made, only if the nodes aren't linked yet. Throwing an exception prevents the link
+     * @param node The node {@link GraphNode#link(GraphNode)} was called on
+     * @param other The node it is being linked to
+     */
+    default void beforeLink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {}
+
+    /**
+     * Called after a link was made
+     * @param node The node {@link GraphNode#link(GraphNode)} was called on
+     * @param other The node it was linked to
+     */
+    void onLink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other);
+
+    /**
+     * Called after a link was removed
+     * @param node The node {@link GraphNode#unlink(GraphNode)} was called on
+     * @param other The node it was unlinked from
+     */
+    void onUnlink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other);
+}
@@ -5,16 +5,28 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 
 /**
  * <p>
  *     An abstract class representing a node of a graph
  * </p>
+ * <p>
+ *     A node can't be linked twice to the same node. The linked nodes are kept in a list, and once there are more than
+ *     {@value GraphNode#HASH_THRESHOLD} of them, their positions in the list are also indexed in a hash table, so that
+ *     linking, unlinking and checking a link take a constant time however many links the node has. Indexed nodes
+ *     unlink a node by moving the last linked node to its position, so their linked nodes don't keep their order
+ * </p>
  * @param <T> The type of the elements contained in the graph
  */
 public abstract class GraphNode<T> {
+    // The number of linked nodes above which their positions are indexed
+    public static final int HASH_THRESHOLD = 16;
+
     protected T value;
     protected final ArrayList<GraphNode<T>> linked;
+    private IdentityHashMap<GraphNode<T>, Integer> positions;
+    private ArrayList<GraphListener<T>> listeners;
 
     @Contract(pure = true)
     protected GraphNode(T value) {
@@ -36,6 +48,7 @@ public abstract class GraphNode<T> {
 
     /**
      * Returns the list of the nodes that this node is connected to
+     * <p> The list must not be modified directly, or the links would no longer be indexed correctly </p>
      * @return An {@link ArrayList} of the nodes that this node is connected to
      */
     public ArrayList<GraphNode<T>> getLinked() {return this.linked;}
@@ -67,4 +80,132 @@ public abstract class GraphNode<T> {
     public void unlink(@NotNull Collection<GraphNode<T>> others) {
         for (GraphNode<T> node : others) unlink(node);
     }
+
+    /**
+     * Unlinks all the nodes linked to this one
+     */
+    public void unlinkAll() {
+        for (GraphNode<T> node : new ArrayList<>(this.linked)) unlink(node);
+    }
+
+    /**
+     * @param other The node to look for
+     * @return {@code true} if the node is linked to this one, {@code false} otherwise
+     */
+    public boolean isLinked(@NotNull GraphNode<T> other) {return this.indexOf(other) >= 0;}
+
+    /**
+     * Registers a listener notified when this node is linked to or unlinked from another node
+     * @param listener The listener to register
+     */
+    public void addListener(@NotNull GraphListener<T> listener) {
+        if (this.listeners == null) this.listeners = new ArrayList<>(2);
+        if (!this.listeners.contains(listener)) this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener
+     * @param listener The listener to unregister
+     */
+    public void removeListener(@NotNull GraphListener<T> listener) {
+        if (this.listeners == null) return;
+        this.listeners.remove(listener);
+        if (this.listeners.isEmpty()) this.listeners = null;
+    }
+
+    /**
+     * Notifies the listeners of both nodes that a link is about to be made between them, each listener only once
+     * @param other The node this one is being linked to
+     */
+    protected void fireBeforeLink(@NotNull GraphNode<T> other) {
+        ArrayList<GraphListener<T>> own = this.listeners;
+        for (int i = 0, size = own == null ? 0 : own.size(); i < size; i++) own.get(i).beforeLink(this, other);
+        ArrayList<GraphListener<T>> others = other.listeners;
+        for (int i = 0, size = other == this || others == null ? 0 : others.size(); i < size; i++) {
+            if (own == null || !own.contains(others.get(i))) others.get(i).beforeLink(this, other);
+        }
+    }
+
+    /**
+     * Notifies the listeners of both nodes that a link was made between them, each listener only once
+     * @param other The node this one was linked to
+     */
+    protected void fireLinked(@NotNull GraphNode<T> other) {
+        ArrayList<GraphListener<T>> own = this.listeners;
+        for (int i = 0, size = own == null ? 0 : own.size(); i < size; i++) own.get(i).onLink(this, other);
+        ArrayList<GraphListener<T>> others = other.listeners;
+        for (int i = 0, size = other == this || others == null ? 0 : others.size(); i < size; i++) {
+            if (own == null || !own.contains(others.get(i))) others.get(i).onLink(this, other);
+        }
+    }
+
+    /**
+     * Notifies the listeners of both nodes that the link between them was removed, each listener only once
+     * @param other The node this one was unlinked from
+     */
+    protected void fireUnlinked(@NotNull GraphNode<T> other) {
+        ArrayList<GraphListener<T>> own = this.listeners;
+        for (int i = 0, size = own == null ? 0 : own.size(); i < size; i++) own.get(i).onUnlink(this, other);
+        ArrayList<GraphListener<T>> others = other.listeners;
+        for (int i = 0, size = other == this || others == null ? 0 : others.size(); i < size; i++) {
+            if (own == null || !own.contains(others.get(i))) others.get(i).onUnlink(this, other);
+        }
+    }
+
+    /**
+     * Adds a node to the linked nodes of this one, without changing the other node
+     * @param other The node to add
+     * @return {@code true} if the node was added, {@code false} if it was already linked
+     */
+    protected boolean addLink(@NotNull GraphNode<T> other) {
+        if (this.indexOf(other) >= 0) return false;
+        this.linked.add(other);
+        if (this.positions != null) this.positions.put(other, this.linked.size() - 1);
+        else if (this.linked.size() > HASH_THRESHOLD) this.index();
+        return true;
+    }
+
+    /**
+     * Removes a node from the linked nodes of this one, without changing the other node
+     * @param other The node to remove
+     * @return {@code true} if the node was removed, {@code false} if it wasn't linked
+     */
+    protected boolean removeLink(@NotNull GraphNode<T> other) {
+        int index = this.indexOf(other);
+        if (index < 0) return false;
+        if (this.positions == null) {
+            this.linked.remove(index);
+            return true;
+        }
+        this.positions.remove(other);
+        GraphNode<T> last = this.linked.remove(this.linked.size() - 1);
+        if (last != other) {
+            this.linked.set(index, last);
+            this.positions.put(last, index);
+        }
+        if (this.linked.size() <= HASH_THRESHOLD / 2) this.positions = null;
+        return true;
+    }
+
+    /**
+     * Removes all the nodes from the linked nodes of this one, without changing the other nodes
+     */
+    protected void clearLinks() {
+        this.linked.clear();
+        this.positions = null;
+    }
+
+    private int indexOf(@NotNull GraphNode<T> other) {
+        if (this.positions != null) {
+            Integer index = this.positions.get(other);
+            return index == null ? -1 : index;
+        }
+        for (int i = 0; i < this.linked.size(); i++) if (this.linked.get(i) == other) return i;
+        return -1;
+    }
+
+    private void index() {
+        this.positions = new IdentityHashMap<>(this.linked.size() << 1);
+        for (int i = 0; i < this.linked.size(); i++) this.positions.put(this.linked.get(i), i);
+    }
 }
@@ -0,0 +1,293 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.IntStack;
+import fr.enderstevegamer.satellitary.Queue;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ *     A class going through the nodes of a graph made of {@link GraphNode}s
+ * </p>
+ * <p>
+ *     All the traversals are iterative, so they work on graphs of any depth without overflowing the stack. They are
+ *     lazy: the nodes are only explored when the next result is asked for, so a caller stopping after a few results,
+ *     with {@link Stream#limit(long)} or {@link Stream#findFirst()} for example, doesn't explore the whole graph.
+ *     The visited nodes are tracked by identity in a single open-addressing table, which doesn't allocate anything
+ *     per node
+ * </p>
+ */
+public final class GraphTraversal {
+    private GraphTraversal() {}
+
+    /**
+     * Goes through the nodes reachable from the start, closest first
+     * @param start The node to start from, which is the first result
+     * @return A lazy {@link Stream} of the reachable nodes, in breadth-first order
+     */
+    public static <T> @NotNull Stream<GraphNode<T>> breadthFirst(@NotNull GraphNode<T> start) {
+        return stream(new BreadthFirstIterator<>(start));
+    }
+
+    /**
+     * Goes through the nodes reachable from the start, following each link as deep as possible before the next one
+     * @param start The node to start from, which is the first result
+     * @return A lazy {@link Stream} of the reachable nodes, in depth-first pre-order
+     */
+    public static <T> @NotNull Stream<GraphNode<T>> depthFirst(@NotNull GraphNode<T> start) {
+        return stream(new DepthFirstIterator<>(start));
+    }
+
+    /**
+     * Finds the closest node matching the predicate, stopping as soon as it is found
+     * @param start The node to start from
+     * @param predicate The condition the node must match
+     * @return The closest matching node in number of links, or an empty {@link Optional} if there is none
+     */
+    public static <T> @NotNull Optional<GraphNode<T>> findFirst(@NotNull GraphNode<T> start,
+                                                                 @NotNull Predicate<? super GraphNode<T>> predicate) {
+        return breadthFirst(start).filter(predicate).findFirst();
+    }
+
+    /**
+     * Goes through the nodes reachable from the start, by increasing distance, using Dijkstra's algorithm
+     * @param start The node to start from, which is the first result
+     * @param weights The weight of each link, which must not be negative
+     * @return A lazy {@link Stream} of the reachable nodes with their distance, closest first
+     */
+    public static <T> @NotNull Stream<Reached<T>> byDistance(@NotNull GraphNode<T> start,
+                                                             @NotNull EdgeWeight<T> weights) {
+        return stream(new ShortestPathIterator<>(start, null, weights, node -> 0));
+    }
+
+    /**
+     * Finds the shortest path between two nodes using Dijkstra's algorithm
+     * @param start The node the path starts from
+     * @param goal The node the path goes to
+     * @param weights The weight of each link, which must not be negative
+     * @return The shortest path, or {@code null} if the goal can't be reached
+     */
+    public static <T> @Nullable Path<T> shortestPath(@NotNull GraphNode<T> start, @NotNull GraphNode<T> goal,
+                                                     @NotNull EdgeWeight<T> weights) {
+        return shortestPath(start, goal, weights, node -> 0);
+    }
+
+    /**
+     * <p>
+     *     Finds the shortest path between two nodes using the A* algorithm
+     * </p>
+     * <p>
+     *     The heuristic guides the search towards the goal. It must never be greater than the real distance to the
+     *     goal, nor decrease by more than the weight of a link when following it, or the path found may not be the
+     *     shortest
+     * </p>
+     * @param start The node the path starts from
+     * @param goal The node the path goes to
+     * @param weights The weight of each link, which must not be negative
+     * @param heuristic An estimation of the distance from a node to the goal
+     * @return The shortest path, or {@code null} if the goal can't be reached
+     */
+    public static <T> @Nullable Path<T> shortestPath(@NotNull GraphNode<T> start, @NotNull GraphNode<T> goal,
+                                                     @NotNull EdgeWeight<T> weights,
+                                                     @NotNull ToDoubleFunction<? super GraphNode<T>> heuristic) {
+        ShortestPathIterator<T> iterator = new ShortestPathIterator<>(start, goal, weights, heuristic);
+        while (iterator.hasNext()) {
+            Reached<T> reached = iterator.next();
+            if (reached.node() == goal) return iterator.pathTo(goal, reached.distance());
+        }
+        return null;
+    }
+
+    @Contract(pure = true)
+    private static <E> @NotNull Stream<E> stream(@NotNull Iterator<E> iterator) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false
+        );
+    }
+
+    /**
+     * The weight of the links of a graph
+     * @param <T> The type of the elements contained in the graph
+     */
+    @FunctionalInterface
+    public interface EdgeWeight<T> {
+        /**
+         * @param from The node the link starts from
+         * @param to The node the link goes to
+         * @return The weight of the link, which must not be negative
+         */
+        double weight(@NotNull GraphNode<T> from, @NotNull GraphNode<T> to);
+    }
+
+    /**
+     * A node reached by a shortest path search
+     * @param node The reached node
+     * @param distance The length of the shortest path from the start to the node
+     * @param <T> The type of the elements contained in the graph
+     */
+    public record Reached<T>(@NotNull GraphNode<T> node, double distance) {}
+
+    /**
+     * A path between two nodes
+     * @param nodes The nodes of the path, from the start to the goal
+     * @param cost The sum of the weights of the links of the path
+     * @param <T> The type of the elements contained in the graph
+     */
+    public record Path<T>(@NotNull List<GraphNode<T>> nodes, double cost) {}
+
+    private static final class BreadthFirstIterator<T> implements Iterator<GraphNode<T>> {
+        private final IdentityHashMap<GraphNode<T>, Boolean> visited = new IdentityHashMap<>();
+        private final Queue<GraphNode<T>> pending = new Queue<>();
+
+        private BreadthFirstIterator(@NotNull GraphNode<T> start) {
+            this.visited.put(start, Boolean.TRUE);
+            this.pending.queue(start);
+        }
+
+        @Override
+        public boolean hasNext() {return !this.pending.isEmpty();}
+
+        @Override
+        public GraphNode<T> next() {
+            if (this.pending.isEmpty()) throw new NoSuchElementException();
+            GraphNode<T> node = this.pending.unqueue();
+            for (GraphNode<T> other : node.getLinked()) {
+                if (this.visited.put(other, Boolean.TRUE) == null) this.pending.queue(other);
+            }
+            return node;
+        }
+    }
+
+    private static final class DepthFirstIterator<T> implements Iterator<GraphNode<T>> {
+        private final IdentityHashMap<GraphNode<T>, Boolean> visited = new IdentityHashMap<>();
+        // The linked nodes of the nodes being explored, read once per node, and the index of the next link to follow
+        // for each of them
+        private final ArrayList<List<GraphNode<T>>> path = new ArrayList<>();
+        private final IntStack nextLinks = new IntStack();
+        private GraphNode<T> next;
+
+        private DepthFirstIterator(@NotNull GraphNode<T> start) {
+            this.visited.put(start, Boolean.TRUE);
+            this.next = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next != null) return true;
+            while (!this.path.isEmpty()) {
+                List<GraphNode<T>> linked = this.path.get(this.path.size() - 1);
+                int link = this.nextLinks.unstack();
+                if (link < linked.size()) {
+                    this.nextLinks.stack(link + 1);
+                    GraphNode<T> other = linked.get(link);
+                    if (this.visited.put(other, Boolean.TRUE) == null) {
+                        this.next = other;
+                        return true;
+                    }
+                }
+                else this.path.remove(this.path.size() - 1);
+            }
+            return false;
+        }
+
+        @Override
+        public GraphNode<T> next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            GraphNode<T> node = this.next;
+            this.next = null;
+            this.path.add(node.getLinked());
+            this.nextLinks.stack(0);
+            return node;
+        }
+    }
+
+    private static final class ShortestPathIterator<T> implements Iterator<Reached<T>> {
+        private final GraphNode<T> goal;
+        private final EdgeWeight<T> weights;
+        private final ToDoubleFunction<? super GraphNode<T>> heuristic;
+        private final IdentityHashMap<GraphNode<T>, Label<T>> labels = new IdentityHashMap<>();
+        private final PriorityQueue<Label<T>> frontier = new PriorityQueue<>(
+                (first, second) -> Double.compare(first.priority, second.priority)
+        );
+
+        private ShortestPathIterator(@NotNull GraphNode<T> start, @Nullable GraphNode<T> goal,
+                                     @NotNull EdgeWeight<T> weights,
+                                     @NotNull ToDoubleFunction<? super GraphNode<T>> heuristic) {
+            this.goal = goal;
+            this.weights = weights;
+            this.heuristic = heuristic;
+            Label<T> label = new Label<>(start, null, 0, heuristic.applyAsDouble(start));
+            this.labels.put(start, label);
+            this.frontier.add(label);
+        }
+
+        @Override
+        public boolean hasNext() {
+            // Labels replaced by a shorter path are left in the queue, and skipped here
+            while (!this.frontier.isEmpty() && this.frontier.peek().settled) this.frontier.poll();
+            return !this.frontier.isEmpty();
+        }
+
+        @Override
+        public Reached<T> next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            Label<T> label = this.frontier.poll();
+            label.settled = true;
+            GraphNode<T> node = label.node;
+            if (node != this.goal) {
+                for (GraphNode<T> other : node.getLinked()) this.relax(label, other);
+            }
+            return new Reached<>(node, label.distance);
+        }
+
+        private void relax(@NotNull Label<T> from, @NotNull GraphNode<T> to) {
+            double weight = this.weights.weight(from.node, to);
+            if (!(weight >= 0)) throw new IllegalArgumentException("The weight of a link must not be negative!");
+            double distance = from.distance + weight;
+            Label<T> current = this.labels.get(to);
+            if (current != null && (current.settled || current.distance <= distance)) return;
+            if (current != null) current.settled = true;
+            Label<T> label = new Label<>(to, from, distance, distance + this.heuristic.applyAsDouble(to));
+            this.labels.put(to, label);
+            this.frontier.add(label);
+        }
+
+        private @NotNull Path<T> pathTo(@NotNull GraphNode<T> goal, double cost) {
+            ArrayList<GraphNode<T>> nodes = new ArrayList<>();
+            for (Label<T> label = this.labels.get(goal); label != null; label = label.previous) nodes.add(label.node);
+            Collections.reverse(nodes);
+            return new Path<>(Collections.unmodifiableList(nodes), cost);
+        }
+    }
+
+    private static final class Label<T> {
+        private final GraphNode<T> node;
+        private final Label<T> previous;
+        private final double distance;
+        private final double priority;
+        private boolean settled;
+
+        private Label(GraphNode<T> node, Label<T> previous, double distance, double priority) {
+            this.node = node;
+            this.previous = previous;
+            this.distance = distance;
+            this.priority = priority;
+        }
+    }
+}
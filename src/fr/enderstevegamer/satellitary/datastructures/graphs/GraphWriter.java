@@ -0,0 +1,175 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.io.Codec;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *     A class writing a graph file node by node, without holding the graph in memory
+ * </p>
+ * <p>
+ *     The number of nodes and links is given up front, so that the position of every section of the file is known
+ *     and each node is written straight to its place. The header is written last by {@link GraphWriter#close()}, so
+ *     a file left incomplete is never mistaken for a valid graph
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ * @see GraphFiles
+ */
+public class GraphWriter<T> implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final Codec<? super T> codec;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final Section offsets;
+    private final Section targets;
+    private final Section valueOffsets;
+    private final Section values;
+    private int writtenNodes;
+    private int writtenEdges;
+    private long writtenValueBytes;
+    private boolean closed;
+    private boolean failed;
+
+    /**
+     * Creates a {@link GraphWriter}, replacing the file if it exists
+     * @param path The {@link Path} of the file
+     * @param codec The {@link Codec} encoding the values of the nodes
+     * @param nodeCount The number of nodes that will be written
+     * @param edgeCount The total number of links of these nodes
+     * @throws IOException If the file can't be created
+     */
+    public GraphWriter(@NotNull Path path, @NotNull Codec<? super T> codec, int nodeCount,
+                       int edgeCount) throws IOException {
+        if (nodeCount < 0 || edgeCount < 0) throw new IllegalArgumentException("The counts must not be negative!");
+        this.codec = codec;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.offsets = new Section(GraphFiles.offsetsPosition());
+        this.targets = new Section(GraphFiles.targetsPosition(nodeCount));
+        this.valueOffsets = new Section(GraphFiles.valueOffsetsPosition(nodeCount, edgeCount));
+        this.values = new Section(GraphFiles.valuesPosition(nodeCount, edgeCount));
+    }
+
+    /**
+     * Writes the next node. If the value can't be encoded, nothing is written and the writer can still be used
+     * @param value The value of the node
+     * @param targets The numbers of the nodes it links to
+     * @return The number of the node
+     * @throws IOException If the file can't be written to, in which case the writer refuses any further node and is
+     * closed without a header
+     * @throws IllegalStateException If all the nodes or links announced were already written, or if the writer failed
+     */
+    public int writeNode(T value, int @NotNull ... targets) throws IOException {
+        if (this.closed) throw new IllegalStateException("The writer is closed!");
+        if (this.failed) throw new IllegalStateException("The writer failed to write a previous node!");
+        if (this.writtenNodes == this.nodeCount) throw new IllegalStateException("All the nodes were written!");
+        if (targets.length > this.edgeCount - this.writtenEdges) {
+            throw new IllegalStateException("The nodes have more links than announced!");
+        }
+        for (int target : targets) {
+            if (target < 0 || target >= this.nodeCount) {
+                throw new IllegalArgumentException("There is no node " + target + "!");
+            }
+        }
+        int valueSize = this.codec.encodedSize(value);
+        if (valueSize < 0 || valueSize > GraphFiles.MAX_VALUE_SIZE) {
+            throw new IllegalArgumentException("The value is too big!");
+        }
+        try {
+            // The value is encoded first, as it is the only part that can fail without an IOException
+            ByteBuffer buffer = this.values.ensure(valueSize);
+            int start = buffer.position();
+            try {
+                this.codec.encode(value, buffer);
+                if (buffer.position() - start != valueSize) throw new IllegalStateException(
+                        "The codec wrote " + (buffer.position() - start) + " bytes instead of " + valueSize + "!"
+                );
+            } catch (RuntimeException e) {
+                buffer.position(start);
+                throw e;
+            }
+            this.offsets.ensure(Integer.BYTES).putInt(this.writtenEdges);
+            for (int target : targets) this.targets.ensure(Integer.BYTES).putInt(target);
+            this.valueOffsets.ensure(Long.BYTES).putLong(this.writtenValueBytes);
+        } catch (IOException e) {
+            this.failed = true;
+            throw e;
+        }
+        this.writtenEdges += targets.length;
+        this.writtenValueBytes += valueSize;
+        return this.writtenNodes++;
+    }
+
+    /**
+     * @return The number of nodes written so far
+     */
+    @Contract(pure = true)
+    public int writtenNodes() {return this.writtenNodes;}
+
+    /**
+     * Writes the end of the sections and the header, and closes the file
+     * @throws IOException If the file can't be written to
+     * @throws IllegalStateException If fewer nodes or links than announced were written, or if the writer failed, in
+     * which case the file is closed without a header
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        try (FileChannel channel = this.channel) {
+            if (this.failed) throw new IllegalStateException("The writer failed to write a node!");
+            if (this.writtenNodes != this.nodeCount || this.writtenEdges != this.edgeCount) {
+                throw new IllegalStateException("Only " + this.writtenNodes + " nodes and " + this.writtenEdges
+                        + " links were written instead of " + this.nodeCount + " and " + this.edgeCount + "!");
+            }
+            this.offsets.ensure(Integer.BYTES).putInt(this.writtenEdges);
+            this.valueOffsets.ensure(Long.BYTES).putLong(this.writtenValueBytes);
+            this.offsets.flush();
+            this.targets.flush();
+            this.valueOffsets.flush();
+            this.values.flush();
+            ByteBuffer header = ByteBuffer.allocate(GraphFiles.HEADER_SIZE);
+            header.putInt(GraphFiles.MAGIC).putInt(GraphFiles.VERSION)
+                    .putInt(this.nodeCount).putInt(this.edgeCount).putLong(this.writtenValueBytes).flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * A part of the file written through its own buffer
+     */
+    private final class Section {
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long position;
+
+        private Section(long position) {this.position = position;}
+
+        /**
+         * @return The buffer, with room for the given number of bytes
+         */
+        private @NotNull ByteBuffer ensure(int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes) return this.buffer;
+            this.flush();
+            if (this.buffer.capacity() < bytes) this.buffer = ByteBuffer.allocate(bytes);
+            return this.buffer;
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) this.position += channel.write(this.buffer, this.position);
+            this.buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.io.Codec;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ *     A graph read from a graph file mapped in memory, with the same methods as a {@link CsrGraph}
+ * </p>
+ * <p>
+ *     The links are read straight from the mapped file, and the value of a node is only decoded when
+ *     {@link MappedGraph#getValue(int)} is called, so the graph can be bigger than the memory, and only the parts of
+ *     the file that are used are ever read from the disk. A {@link MappedGraph} can be read by several threads at
+ *     once. The file is unmapped once the graph is garbage collected
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ * @see GraphFiles
+ */
+public final class MappedGraph<T> {
+    // A new region starts every gibibyte, and each region is as big as a buffer can be, so any int, long or value
+    // starting in a region ends in it too
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+    private final Codec<? extends T> codec;
+    private final MappedByteBuffer[] regions;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long offsetsPosition;
+    private final long targetsPosition;
+    private final long valueOffsetsPosition;
+    private final long valuesPosition;
+
+    MappedGraph(@NotNull Codec<? extends T> codec, @NotNull Path path) throws IOException {
+        this.codec = codec;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < GraphFiles.HEADER_SIZE) throw new EOFException("The graph file is truncated!");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GraphFiles.HEADER_SIZE);
+            if (header.getInt() != GraphFiles.MAGIC) throw new StreamCorruptedException("This is not a graph file!");
+            int version = header.getInt();
+            if (version != GraphFiles.VERSION) {
+                throw new StreamCorruptedException("Unsupported graph file version " + version + "!");
+            }
+            this.nodeCount = header.getInt();
+            this.edgeCount = header.getInt();
+            long valuesSize = header.getLong();
+            if (this.nodeCount < 0 || this.edgeCount < 0 || valuesSize < 0) {
+                throw new StreamCorruptedException("Negative sizes in the graph file!");
+            }
+            this.offsetsPosition = GraphFiles.offsetsPosition();
+            this.targetsPosition = GraphFiles.targetsPosition(this.nodeCount);
+            this.valueOffsetsPosition = GraphFiles.valueOffsetsPosition(this.nodeCount, this.edgeCount);
+            this.valuesPosition = GraphFiles.valuesPosition(this.nodeCount, this.edgeCount);
+            if (size < this.valuesPosition + valuesSize) throw new EOFException("The graph file is truncated!");
+            this.regions = new MappedByteBuffer[(int) ((size - 1 >>> REGION_SHIFT) + 1)];
+            for (int i = 0; i < this.regions.length; i++) {
+                long start = (long) i << REGION_SHIFT;
+                this.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, Integer.MAX_VALUE));
+            }
+            if (this.edgeStart(this.nodeCount) != this.edgeCount || this.valueOffset(this.nodeCount) != valuesSize) {
+                throw new StreamCorruptedException("The sections of the graph file don't match its header!");
+            }
+        }
+    }
+
+    /**
+     * @return The number of nodes of the graph
+     */
+    @Contract(pure = true)
+    public int nodeCount() {return this.nodeCount;}
+
+    /**
+     * @return The number of links of the graph
+     */
+    @Contract(pure = true)
+    public int edgeCount() {return this.edgeCount;}
+
+    /**
+     * Decodes the value of the node from the file. Each call decodes the value again
+     * @param node The number of the node
+     * @return The value of the node
+     */
+    public T getValue(int node) {
+        this.checkNode(node);
+        long start = this.valuesPosition + this.valueOffset(node);
+        int length = (int) (this.valueOffset(node + 1) - this.valueOffset(node));
+        ByteBuffer region = this.regions[(int) (start >>> REGION_SHIFT)];
+        return this.codec.decode(region.slice((int) (start & REGION_MASK), length));
+    }
+
+    /**
+     * @param node The number of the node
+     * @return The number of links going out of the node
+     */
+    public int degree(int node) {return this.edgeEnd(node) - this.edgeStart(node);}
+
+    /**
+     * @param node The number of the node
+     * @param index The index of the link among the links of the node
+     * @return The number of the node the link goes to
+     */
+    public int neighbor(int node, int index) {
+        if (index < 0 || index >= this.degree(node)) throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for degree " + this.degree(node) + "!"
+        );
+        return this.edgeTarget(this.edgeStart(node) + index);
+    }
+
+    /**
+     * Returns the index of the first link of the node, to go through the links of the node with
+     * {@link MappedGraph#edgeTarget(int)} without any allocation
+     * @param node The number of the node
+     * @return The index of the first link of the node
+     */
+    public int edgeStart(int node) {
+        if (node < 0 || node > this.nodeCount) throw new IllegalArgumentException("There is no node " + node + "!");
+        return this.readInt(this.offsetsPosition + (long) node * Integer.BYTES);
+    }
+
+    /**
+     * @param node The number of the node
+     * @return The index following the last link of the node
+     */
+    public int edgeEnd(int node) {
+        this.checkNode(node);
+        return this.edgeStart(node + 1);
+    }
+
+    /**
+     * @param edge The index of a link, between {@link MappedGraph#edgeStart(int)} and {@link MappedGraph#edgeEnd(int)}
+     * @return The number of the node the link goes to
+     */
+    public int edgeTarget(int edge) {
+        if (edge < 0 || edge >= this.edgeCount) throw new IllegalArgumentException("There is no link " + edge + "!");
+        return this.readInt(this.targetsPosition + (long) edge * Integer.BYTES);
+    }
+
+    /**
+     * Runs the action on the number of each node the node links to
+     * @param node The number of the node
+     * @param action The action to run
+     */
+    public void forEachNeighbor(int node, @NotNull IntConsumer action) {
+        for (int edge = this.edgeStart(node), end = this.edgeEnd(node); edge < end; edge++) {
+            action.accept(this.edgeTarget(edge));
+        }
+    }
+
+    /**
+     * @param node The number of the node
+     * @return The numbers of the nodes the node links to
+     */
+    public @NotNull IntStream neighbors(int node) {
+        return IntStream.range(this.edgeStart(node), this.edgeEnd(node)).map(this::edgeTarget);
+    }
+
+    /**
+     * Reads the whole graph into a {@link CsrGraph}, decoding all the values
+     * @return A {@link CsrGraph} with the same nodes, links and values
+     */
+    public @NotNull CsrGraph<T> toCsrGraph() {
+        CsrGraph.Builder<T> builder = new CsrGraph.Builder<>(this.nodeCount, this.edgeCount);
+        for (int node = 0; node < this.nodeCount; node++) builder.addNode(this.getValue(node));
+        for (int node = 0; node < this.nodeCount; node++) {
+            for (int edge = this.edgeStart(node), end = this.edgeEnd(node); edge < end; edge++) {
+                builder.addEdge(node, this.edgeTarget(edge));
+            }
+        }
+        return builder.build();
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= this.nodeCount) throw new IllegalArgumentException("There is no node " + node + "!");
+    }
+
+    private long valueOffset(int node) {return this.readLong(this.valueOffsetsPosition + (long) node * Long.BYTES);}
+
+    private int readInt(long position) {
+        return this.regions[(int) (position >>> REGION_SHIFT)].getInt((int) (position & REGION_MASK));
+    }
+
+    private long readLong(long position) {
+        return this.regions[(int) (position >>> REGION_SHIFT)].getLong((int) (position & REGION_MASK));
+    }
+}
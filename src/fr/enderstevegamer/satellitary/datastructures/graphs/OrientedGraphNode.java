@@ -25,7 +25,10 @@ public class OrientedGraphNode<T> extends GraphNode<T> {
      */
     @Override
     public void link(@NotNull GraphNode<T> other) {
-        this.linked.add(other);
+        if (this.isLinked(other)) return;
+        this.fireBeforeLink(other);
+        this.addLink(other);
+        this.fireLinked(other);
     }
 
     /**
@@ -34,6 +37,16 @@ public class OrientedGraphNode<T> extends GraphNode<T> {
      */
     @Override
     public void unlink(@NotNull GraphNode<T> other) {
-        this.linked.remove(other);
+        if (this.removeLink(other)) this.fireUnlinked(other);
+    }
+
+    /**
+     * Unlinks all the nodes this one is linked to
+     */
+    @Override
+    public void unlinkAll() {
+        ArrayList<GraphNode<T>> unlinked = new ArrayList<>(this.linked);
+        this.clearLinks();
+        for (GraphNode<T> other : unlinked) this.fireUnlinked(other);
     }
 }
@@ -0,0 +1,340 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ *     A breadth-first search over a {@link CsrGraph}, processing each level of the search in parallel
+ * </p>
+ * <p>
+ *     While the frontier is small, the search goes top-down: the nodes of the frontier are split between the threads,
+ *     which claim their unvisited neighbors in a concurrent bitset. When the frontier has more links to follow than a
+ *     fraction of the links left to explore, which happens in the middle levels of low-diameter graphs, it switches to
+ *     bottom-up: the unvisited nodes are split between the threads, and each of them looks for a parent in the
+ *     frontier, stopping at the first one found. The search goes back top-down once the frontier is small again
+ * </p>
+ * <p>
+ *     A network of {@link GraphNode}s is searched by freezing it with {@link CsrGraph#freeze(GraphNode)} first
+ * </p>
+ */
+public final class ParallelBfs {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    // Switch to bottom-up once the frontier has more than 1/ALPHA of the links left to explore
+    private static final int ALPHA = 14;
+    // Switch back to top-down once the frontier has less than 1/BETA of the nodes
+    private static final int BETA = 24;
+    // The number of frontier nodes handled by a task going top-down
+    private static final int TOP_DOWN_GRAIN = 256;
+    // The number of nodes handled by a task going bottom-up, a multiple of 64 so that tasks don't share bitset words
+    private static final int BOTTOM_UP_GRAIN = 64 * 64;
+
+    private ParallelBfs() {}
+
+    /**
+     * Searches the graph from the source on the common {@link ForkJoinPool}. The links may go one way only, so the
+     * reversed graph is built with {@link CsrGraph#transpose()} if the search goes bottom-up, which copies all the
+     * links. {@link ParallelBfs#searchUndirected(CsrGraph, int)} avoids that copy when all the links are bi-directional
+     * @see ParallelBfs#search(CsrGraph, CsrGraph, int, ForkJoinPool)
+     */
+    public static @NotNull Result search(@NotNull CsrGraph<?> graph, int source) {
+        return search(graph, null, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the graph from the source on the common {@link ForkJoinPool}, the graph being its own reverse since
+     * all its links are bi-directional, so no reversed graph is ever built
+     * @see ParallelBfs#search(CsrGraph, CsrGraph, int, ForkJoinPool)
+     */
+    public static @NotNull Result searchUndirected(@NotNull CsrGraph<?> graph, int source) {
+        return search(graph, graph, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the graph from the source
+     * @param graph The graph to search
+     * @param reverse The graph with all the links reversed, used when going bottom-up. It can be the graph itself if
+     *                all the links are bi-directional, or {@code null} to compute it with {@link CsrGraph#transpose()}
+     *                the first time the search goes bottom-up, which copies all the links of the graph
+     * @param source The number of the node to start from
+     * @param pool The pool running the search
+     * @return The distances and parents of the nodes in the search tree
+     */
+    public static @NotNull Result search(@NotNull CsrGraph<?> graph, @Nullable CsrGraph<?> reverse, int source,
+                                         @NotNull ForkJoinPool pool) {
+        int nodeCount = graph.nodeCount();
+        if (source < 0 || source >= nodeCount) throw new IllegalArgumentException("There is no node " + source + "!");
+        if (reverse != null && reverse.nodeCount() != nodeCount) {
+            throw new IllegalArgumentException("The reversed graph must have the same nodes!");
+        }
+        Search search = new Search(graph, reverse, pool);
+        search.distances[source] = 0;
+        setBit(search.visited, source);
+        int[] frontier = {source};
+        long[] frontierBits = null;
+        int frontierSize = 1;
+        long frontierEdges = graph.degree(source);
+        long unexploredEdges = graph.edgeCount() - frontierEdges;
+        for (int level = 0; frontierSize > 0; level++) {
+            if (frontierBits == null && frontierEdges > unexploredEdges / ALPHA) {
+                frontierBits = toBits(frontier, nodeCount);
+                frontier = null;
+            }
+            else if (frontierBits != null && frontierSize < nodeCount / BETA) {
+                frontier = toNodes(frontierBits, frontierSize);
+                frontierBits = null;
+            }
+            if (frontierBits == null) {
+                frontier = search.topDown(frontier, level);
+                frontierSize = frontier.length;
+                frontierEdges = search.lastFrontierEdges;
+            }
+            else {
+                frontierBits = search.bottomUp(frontierBits, level);
+                frontierSize = search.lastFrontierSize;
+                frontierEdges = search.lastFrontierEdges;
+            }
+            unexploredEdges -= frontierEdges;
+        }
+        return new Result(search.distances, search.parents);
+    }
+
+    @Contract(pure = true)
+    private static boolean getBit(long @NotNull [] bits, int index) {return (bits[index >>> 6] & 1L << index) != 0;}
+
+    private static void setBit(long @NotNull [] bits, int index) {bits[index >>> 6] |= 1L << index;}
+
+    /**
+     * Sets the bit atomically
+     * @return {@code true} if the bit was set by this call, {@code false} if it was already set
+     */
+    private static boolean claimBit(long @NotNull [] bits, int index) {
+        long mask = 1L << index;
+        if (((long) WORDS.getOpaque(bits, index >>> 6) & mask) != 0) return false;
+        return ((long) WORDS.getAndBitwiseOr(bits, index >>> 6, mask) & mask) == 0;
+    }
+
+    private static long @NotNull [] toBits(int @NotNull [] nodes, int nodeCount) {
+        long[] bits = new long[(nodeCount + 63) >>> 6];
+        for (int node : nodes) setBit(bits, node);
+        return bits;
+    }
+
+    private static int @NotNull [] toNodes(long @NotNull [] bits, int count) {
+        int[] nodes = new int[count];
+        int size = 0;
+        for (int word = 0; word < bits.length; word++) {
+            for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                nodes[size++] = (word << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * The result of a {@link ParallelBfs}
+     */
+    public static final class Result {
+        private final int[] distances;
+        private final int[] parents;
+
+        private Result(int @NotNull [] distances, int @NotNull [] parents) {
+            this.distances = distances;
+            this.parents = parents;
+        }
+
+        /**
+         * @param node The number of the node
+         * @return The number of links between the source and the node, or {@code -1} if it can't be reached
+         */
+        public int getDistance(int node) {return this.distances[node];}
+
+        /**
+         * @param node The number of the node
+         * @return The number of the node the search reached the node from, or {@code -1} for the source and the
+         * nodes that can't be reached
+         */
+        public int getParent(int node) {return this.parents[node];}
+
+        /**
+         * @param node The number of the node
+         * @return {@code true} if the node can be reached from the source, {@code false} otherwise
+         */
+        public boolean isReachable(int node) {return this.distances[node] >= 0;}
+
+        /**
+         * @param node The number of the node
+         * @return The numbers of the nodes of a shortest path from the source to the node, or an empty array if the
+         * node can't be reached
+         */
+        public int @NotNull [] getPathTo(int node) {
+            if (this.distances[node] < 0) return new int[0];
+            int[] path = new int[this.distances[node] + 1];
+            for (int i = path.length - 1; i >= 0; i--, node = this.parents[node]) path[i] = node;
+            return path;
+        }
+
+        /**
+         * @return The number of nodes that can be reached from the source, including it
+         */
+        public int getReachedCount() {
+            int count = 0;
+            for (int distance : this.distances) if (distance >= 0) count++;
+            return count;
+        }
+    }
+
+    private static final class Search {
+        private final CsrGraph<?> graph;
+        private CsrGraph<?> reverse;
+        private final ForkJoinPool pool;
+        private final int[] distances;
+        private final int[] parents;
+        private final long[] visited;
+        private int lastFrontierSize;
+        private long lastFrontierEdges;
+
+        private Search(@NotNull CsrGraph<?> graph, @Nullable CsrGraph<?> reverse, @NotNull ForkJoinPool pool) {
+            this.graph = graph;
+            this.reverse = reverse;
+            this.pool = pool;
+            this.distances = new int[graph.nodeCount()];
+            this.parents = new int[graph.nodeCount()];
+            this.visited = new long[(graph.nodeCount() + 63) >>> 6];
+            Arrays.fill(this.distances, -1);
+            Arrays.fill(this.parents, -1);
+        }
+
+        /**
+         * Claims the unvisited neighbors of the frontier nodes
+         * @return The next frontier
+         */
+        private int @NotNull [] topDown(int @NotNull [] frontier, int level) {
+            int chunks = (frontier.length + TOP_DOWN_GRAIN - 1) / TOP_DOWN_GRAIN;
+            int[][] next = new int[chunks][];
+            long[] edges = new long[chunks];
+            this.forEachChunk(chunks, chunk -> {
+                int[] found = new int[16];
+                int size = 0;
+                long foundEdges = 0;
+                int end = Math.min(frontier.length, (chunk + 1) * TOP_DOWN_GRAIN);
+                for (int i = chunk * TOP_DOWN_GRAIN; i < end; i++) {
+                    int node = frontier[i];
+                    for (int edge = this.graph.edgeStart(node), last = this.graph.edgeEnd(node); edge < last; edge++) {
+                        int other = this.graph.edgeTarget(edge);
+                        if (!claimBit(this.visited, other)) continue;
+                        this.distances[other] = level + 1;
+                        this.parents[other] = node;
+                        foundEdges += this.graph.degree(other);
+                        if (size == found.length) found = Arrays.copyOf(found, size << 1);
+                        found[size++] = other;
+                    }
+                }
+                next[chunk] = Arrays.copyOf(found, size);
+                edges[chunk] = foundEdges;
+            });
+            int total = 0;
+            long totalEdges = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                total += next[chunk].length;
+                totalEdges += edges[chunk];
+            }
+            int[] merged = new int[total];
+            int position = 0;
+            for (int[] part : next) {
+                System.arraycopy(part, 0, merged, position, part.length);
+                position += part.length;
+            }
+            this.lastFrontierSize = total;
+            this.lastFrontierEdges = totalEdges;
+            return merged;
+        }
+
+        /**
+         * Looks for a parent in the frontier for each unvisited node
+         * @return The next frontier
+         */
+        private long @NotNull [] bottomUp(long @NotNull [] frontier, int level) {
+            if (this.reverse == null) this.reverse = this.graph.transpose();
+            CsrGraph<?> reverse = this.reverse;
+            int nodeCount = this.graph.nodeCount();
+            int chunks = (nodeCount + BOTTOM_UP_GRAIN - 1) / BOTTOM_UP_GRAIN;
+            long[] next = new long[frontier.length];
+            int[] sizes = new int[chunks];
+            long[] edges = new long[chunks];
+            this.forEachChunk(chunks, chunk -> {
+                int size = 0;
+                long foundEdges = 0;
+                int end = Math.min(nodeCount, (chunk + 1) * BOTTOM_UP_GRAIN);
+                for (int node = chunk * BOTTOM_UP_GRAIN; node < end; node++) {
+                    // The bitset words of the chunk are only written by this task during this level
+                    if (getBit(this.visited, node)) continue;
+                    for (int edge = reverse.edgeStart(node), last = reverse.edgeEnd(node); edge < last; edge++) {
+                        int parent = reverse.edgeTarget(edge);
+                        if (!getBit(frontier, parent)) continue;
+                        this.distances[node] = level + 1;
+                        this.parents[node] = parent;
+                        setBit(this.visited, node);
+                        setBit(next, node);
+                        foundEdges += this.graph.degree(node);
+                        size++;
+                        break;
+                    }
+                }
+                sizes[chunk] = size;
+                edges[chunk] = foundEdges;
+            });
+            int total = 0;
+            long totalEdges = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                total += sizes[chunk];
+                totalEdges += edges[chunk];
+            }
+            this.lastFrontierSize = total;
+            this.lastFrontierEdges = totalEdges;
+            return next;
+        }
+
+        private void forEachChunk(int chunks, @NotNull ChunkAction action) {
+            if (chunks == 1 || this.pool.getParallelism() <= 1) {
+                for (int chunk = 0; chunk < chunks; chunk++) action.run(chunk);
+            }
+            else this.pool.invoke(new ChunkTask(0, chunks, action));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void run(int chunk);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final ChunkAction action;
+
+        private ChunkTask(int from, int to, @NotNull ChunkAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.action.run(this.from);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new ChunkTask(this.from, middle, this.action), new ChunkTask(middle, this.to, this.action));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package fr.enderstevegamer.satellitary.datastructures.graphs;
+
+import fr.enderstevegamer.satellitary.Queue;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ *     A topological order of a graph made of {@link OrientedGraphNode}s, kept up to date as the graph changes
+ * </p>
+ * <p>
+ *     Every node is given a position, lower than the positions of all the nodes it links to. The order listens to the
+ *     links of all the nodes it tracks, and is repaired with the algorithm of Pearce and Kelly before each new link:
+ *     only the nodes between the two ends of the link are explored and moved, instead of sorting the whole graph
+ *     again. A link that would create a cycle is refused with an {@link IllegalStateException}, and the graph is left
+ *     unchanged. Removing a link never invalidates the order
+ * </p>
+ * <p>
+ *     The order keeps the tracked nodes alive until {@link TopologicalOrder#detach()} is called. It can't track
+ *     {@link ConcurrentBidirectionalGraphNode}s, which don't notify listeners
+ * </p>
+ * @param <T> The type of the elements contained in the graph
+ */
+public class TopologicalOrder<T> implements GraphListener<T> {
+    private final IdentityHashMap<GraphNode<T>, Entry<T>> entries = new IdentityHashMap<>();
+    private int lowestPosition;
+    private int epoch;
+
+    /**
+     * Creates a {@link TopologicalOrder} of the nodes reachable from the given ones
+     * @param nodes The nodes to start tracking, with all the nodes reachable from them
+     * @throws IllegalArgumentException If the graph contains a cycle
+     */
+    public TopologicalOrder(@NotNull Collection<? extends GraphNode<T>> nodes) {
+        for (GraphNode<T> node : nodes) this.track(node);
+    }
+
+    /**
+     * Creates a {@link TopologicalOrder} of the nodes reachable from the given one
+     * @see TopologicalOrder#TopologicalOrder(Collection)
+     */
+    public TopologicalOrder(@NotNull GraphNode<T> node) {this(List.of(node));}
+
+    /**
+     * Starts tracking the node and all the nodes reachable from it. The new nodes are placed before all the tracked
+     * ones, as no tracked node links to them
+     * @param node The node to track
+     * @throws IllegalArgumentException If the new nodes contain a cycle, in which case none of them is tracked, or if
+     * the node is a {@link ConcurrentBidirectionalGraphNode}
+     */
+    public void track(@NotNull GraphNode<T> node) {
+        if (this.entries.containsKey(node)) return;
+        if (node instanceof ConcurrentBidirectionalGraphNode) {
+            throw new IllegalArgumentException("Concurrent nodes don't notify listeners, so they can't be tracked!");
+        }
+        IdentityHashMap<GraphNode<T>, int[]> inDegrees = new IdentityHashMap<>();
+        ArrayList<GraphNode<T>> discovered = new ArrayList<>();
+        inDegrees.put(node, new int[1]);
+        discovered.add(node);
+        for (int i = 0; i < discovered.size(); i++) {
+            for (GraphNode<T> other : discovered.get(i).getLinked()) {
+                if (this.entries.containsKey(other)) continue;
+                int[] inDegree = inDegrees.get(other);
+                if (inDegree == null) {
+                    inDegrees.put(other, new int[] {1});
+                    discovered.add(other);
+                }
+                else inDegree[0]++;
+            }
+        }
+        ArrayList<GraphNode<T>> sorted = new ArrayList<>(discovered.size());
+        Queue<GraphNode<T>> ready = new Queue<>();
+        for (GraphNode<T> discoveredNode : discovered) {
+            if (inDegrees.get(discoveredNode)[0] == 0) ready.queue(discoveredNode);
+        }
+        while (!ready.isEmpty()) {
+            GraphNode<T> current = ready.unqueue();
+            sorted.add(current);
+            for (GraphNode<T> other : current.getLinked()) {
+                int[] inDegree = inDegrees.get(other);
+                if (inDegree != null && --inDegree[0] == 0) ready.queue(other);
+            }
+        }
+        if (sorted.size() < discovered.size()) throw new IllegalArgumentException("The graph contains a cycle!");
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            GraphNode<T> sortedNode = sorted.get(i);
+            this.entries.put(sortedNode, new Entry<>(sortedNode, this.lowestPosition--));
+        }
+        for (GraphNode<T> sortedNode : sorted) {
+            Entry<T> entry = this.entries.get(sortedNode);
+            for (GraphNode<T> other : sortedNode.getLinked()) this.entries.get(other).predecessors.add(entry);
+            sortedNode.addListener(this);
+        }
+    }
+
+    /**
+     * Checks whether a node comes before another one in the order, tracking them if they weren't yet
+     * @return {@code true} if the first node comes before the second one, {@code false} otherwise
+     */
+    public boolean precedes(@NotNull GraphNode<T> first, @NotNull GraphNode<T> second) {
+        this.track(first);
+        this.track(second);
+        return this.entries.get(first).position < this.entries.get(second).position;
+    }
+
+    /**
+     * @return The tracked nodes, each of them before all the nodes it links to
+     */
+    public @NotNull List<GraphNode<T>> order() {
+        ArrayList<Entry<T>> sorted = new ArrayList<>(this.entries.values());
+        sorted.sort(Comparator.comparingInt(entry -> entry.position));
+        ArrayList<GraphNode<T>> nodes = new ArrayList<>(sorted.size());
+        for (Entry<T> entry : sorted) nodes.add(entry.node);
+        return nodes;
+    }
+
+    /**
+     * @return The number of tracked nodes
+     */
+    @Contract(pure = true)
+    public int size() {return this.entries.size();}
+
+    /**
+     * @return A view of the tracked nodes, in no particular order
+     */
+    @NotNull Set<GraphNode<T>> nodes() {return Collections.unmodifiableSet(this.entries.keySet());}
+
+    /**
+     * @return The number of nodes linking to the tracked node
+     */
+    int predecessorCount(@NotNull GraphNode<T> node) {return this.entries.get(node).predecessors.size();}
+
+    /**
+     * Stops listening to the tracked nodes and forgets them
+     */
+    public void detach() {
+        for (GraphNode<T> node : this.entries.keySet()) node.removeListener(this);
+        this.entries.clear();
+    }
+
+    /**
+     * Moves the nodes so that the node comes before the other one
+     * @throws IllegalStateException If the other node already leads to the node, so the link would create a cycle
+     */
+    @Override
+    public void beforeLink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {
+        if (node == other) throw new IllegalStateException("Linking a node to itself would create a cycle!");
+        this.track(node);
+        this.track(other);
+        Entry<T> from = this.entries.get(node);
+        Entry<T> to = this.entries.get(other);
+        if (from.position < to.position) return;
+        this.epoch++;
+        ArrayList<Entry<T>> forward = this.forward(to, from);
+        ArrayList<Entry<T>> backward = this.backward(from, to.position);
+        this.reorder(backward, forward);
+    }
+
+    @Override
+    public void onLink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {
+        this.entries.get(other).predecessors.add(this.entries.get(node));
+    }
+
+    @Override
+    public void onUnlink(@NotNull GraphNode<T> node, @NotNull GraphNode<T> other) {
+        Entry<T> to = this.entries.get(other);
+        if (to != null) to.predecessors.remove(this.entries.get(node));
+    }
+
+    /**
+     * Collects the nodes reachable from the start that are placed before the limit
+     * @throws IllegalStateException If the limit is reachable
+     */
+    private @NotNull ArrayList<Entry<T>> forward(@NotNull Entry<T> start, @NotNull Entry<T> limit) {
+        ArrayList<Entry<T>> visited = new ArrayList<>();
+        ArrayList<Entry<T>> pending = new ArrayList<>();
+        start.visit = this.epoch;
+        pending.add(start);
+        while (!pending.isEmpty()) {
+            Entry<T> entry = pending.remove(pending.size() - 1);
+            visited.add(entry);
+            for (GraphNode<T> next : entry.node.getLinked()) {
+                Entry<T> nextEntry = this.entries.get(next);
+                if (nextEntry == limit) throw new IllegalStateException("This link would create a cycle!");
+                if (nextEntry.visit != this.epoch && nextEntry.position < limit.position) {
+                    nextEntry.visit = this.epoch;
+                    pending.add(nextEntry);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Collects the nodes leading to the start that are placed after the limit
+     */
+    private @NotNull ArrayList<Entry<T>> backward(@NotNull Entry<T> start, int limit) {
+        ArrayList<Entry<T>> visited = new ArrayList<>();
+        ArrayList<Entry<T>> pending = new ArrayList<>();
+        start.visit = this.epoch;
+        pending.add(start);
+        while (!pending.isEmpty()) {
+            Entry<T> entry = pending.remove(pending.size() - 1);
+            visited.add(entry);
+            for (Entry<T> previous : entry.predecessors) {
+                if (previous.visit != this.epoch && previous.position > limit) {
+                    previous.visit = this.epoch;
+                    pending.add(previous);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Gives the positions of all the collected nodes to the nodes leading to the new link first, then to the nodes
+     * reachable from it, keeping the relative order of each group
+     */
+    private void reorder(@NotNull ArrayList<Entry<T>> backward, @NotNull ArrayList<Entry<T>> forward) {
+        Comparator<Entry<T>> byPosition = Comparator.comparingInt(entry -> entry.position);
+        backward.sort(byPosition);
+        forward.sort(byPosition);
+        int[] positions = new int[backward.size() + forward.size()];
+        int index = 0;
+        for (Entry<T> entry : backward) positions[index++] = entry.position;
+        for (Entry<T> entry : forward) positions[index++] = entry.position;
+        Arrays.sort(positions);
+        index = 0;
+        for (Entry<T> entry : backward) entry.position = positions[index++];
+        for (Entry<T> entry : forward) entry.position = positions[index++];
+    }
+
+    private static final class Entry<T> {
+        private final GraphNode<T> node;
+        private final ArrayList<Entry<T>> predecessors = new ArrayList<>(2);
+        private int position;
+        private int visit;
+
+        private Entry(@NotNull GraphNode<T> node, int position) {
+            this.node = node;
+            this.position = position;
+        }
+    }
+}
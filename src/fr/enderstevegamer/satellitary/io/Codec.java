@@ -0,0 +1,33 @@
+package fr.enderstevegamer.satellitary.io;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An object converting values to bytes and back
+ * @param <T> The type of the converted values
+ * @see Codecs
+ */
+public interface Codec<T> {
+    /**
+     * Returns the number of bytes the value takes once encoded
+     * @param value The value to encode
+     * @return The number of bytes {@link Codec#encode(Object, ByteBuffer)} will write
+     */
+    int encodedSize(T value);
+
+    /**
+     * Writes the value at the position of the buffer, which has enough space left for it
+     * @param value The value to encode
+     * @param buffer The {@link ByteBuffer} to write the value to
+     */
+    void encode(T value, @NotNull ByteBuffer buffer);
+
+    /**
+     * Reads a value from the buffer, between its position and its limit
+     * @param buffer The {@link ByteBuffer} holding exactly one encoded value
+     * @return The decoded value
+     */
+    T decode(@NotNull ByteBuffer buffer);
+}
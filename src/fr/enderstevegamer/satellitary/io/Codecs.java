@@ -0,0 +1,88 @@
+package fr.enderstevegamer.satellitary.io;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@link Codec} of the most common types
+ */
+public final class Codecs {
+    /**
+     * A {@link Codec} encoding a {@link String} as UTF-8
+     */
+    public static final Codec<String> STRING = new Codec<>() {
+        @Override
+        public int encodedSize(String value) {
+            int size = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) size++;
+                else if (c < 0x800) size += 2;
+                else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {size += 4; i++;}
+                // An unpaired surrogate is replaced by a single '?' when encoding
+                else if (Character.isSurrogate(c)) size++;
+                else size += 3;
+            }
+            return size;
+        }
+
+        @Override
+        public void encode(String value, @NotNull ByteBuffer buffer) {
+            buffer.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(@NotNull ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    };
+
+    /**
+     * A {@link Codec} encoding an {@link Integer} on 4 bytes
+     */
+    public static final Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public int encodedSize(Integer value) {return Integer.BYTES;}
+
+        @Override
+        public void encode(Integer value, @NotNull ByteBuffer buffer) {buffer.putInt(value);}
+
+        @Override
+        public Integer decode(@NotNull ByteBuffer buffer) {return buffer.getInt();}
+    };
+
+    /**
+     * A {@link Codec} encoding a {@link Long} on 8 bytes
+     */
+    public static final Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int encodedSize(Long value) {return Long.BYTES;}
+
+        @Override
+        public void encode(Long value, @NotNull ByteBuffer buffer) {buffer.putLong(value);}
+
+        @Override
+        public Long decode(@NotNull ByteBuffer buffer) {return buffer.getLong();}
+    };
+
+    /**
+     * A {@link Codec} encoding a {@link Double} on 8 bytes
+     */
+    public static final Codec<Double> DOUBLE = new Codec<>() {
+        @Override
+        public int encodedSize(Double value) {return Double.BYTES;}
+
+        @Override
+        public void encode(Double value, @NotNull ByteBuffer buffer) {buffer.putDouble(value);}
+
+        @Override
+        public Double decode(@NotNull ByteBuffer buffer) {return buffer.getDouble();}
+    };
+
+    @Contract(pure = true)
+    private Codecs() {}
+}
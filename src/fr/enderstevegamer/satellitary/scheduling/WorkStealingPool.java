@@ -0,0 +1,308 @@
+package fr.enderstevegamer.satellitary.scheduling;
+
+import fr.enderstevegamer.satellitary.WorkStealingDeque;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     A pool of worker threads running {@link Task}s
+ * </p>
+ * <p>
+ *     Each worker has its own {@link WorkStealingDeque}. The tasks forked by a worker are pushed to its deque and run
+ *     last in first out, and idle workers steal the oldest tasks of the others, which are the biggest pieces of work
+ *     in a divide-and-conquer job. A worker waiting for a task to finish runs other tasks in the meantime
+ * </p>
+ */
+public class WorkStealingPool implements Executor, AutoCloseable {
+    // The number of times an idle worker looks for a task before parking
+    private static final int IDLE_SPINS = 64;
+    // The maximum time an idle worker parks before looking for a task again, in nanoseconds
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Task<?>> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a {@link WorkStealingPool} and starts its workers
+     * @param workers The number of worker threads
+     */
+    public WorkStealingPool(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("The number of workers must be positive!");
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) this.workers[i] = new Worker(this, i);
+        for (Worker worker : this.workers) worker.start();
+    }
+
+    /**
+     * Creates a {@link WorkStealingPool} with one worker per available processor
+     * @see WorkStealingPool#WorkStealingPool(int)
+     */
+    public WorkStealingPool() {this(Runtime.getRuntime().availableProcessors());}
+
+    /**
+     * @return The number of worker threads
+     */
+    @Contract(pure = true)
+    public int getWorkerCount() {return this.workers.length;}
+
+    /**
+     * Runs the task in the pool and waits for its result
+     * @param task The {@link Task} to run
+     * @return The result of the task
+     * @throws CompletionException If the task threw an exception
+     */
+    public <R> R invoke(@NotNull Task<R> task) {
+        submit(task);
+        return task.join();
+    }
+
+    /**
+     * Schedules the task to run in the pool
+     * @param task The {@link Task} to run
+     * @return The task, to join it later
+     */
+    public <R> @NotNull Task<R> submit(@NotNull Task<R> task) {
+        if (shutdown) throw new RejectedExecutionException("The pool is shut down!");
+        Worker worker = currentWorker();
+        if (worker != null) worker.deque.push(task);
+        else submissions.add(task);
+        signalWork();
+        return task;
+    }
+
+    /**
+     * Schedules the runnable to run in the pool
+     * @param runnable The {@link Runnable} to run
+     */
+    @Override
+    public void execute(@NotNull Runnable runnable) {
+        submit(new Task<Void>() {
+            @Override
+            protected Void compute() {
+                runnable.run();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Stops the workers once all the scheduled tasks have run, and waits for them to stop
+     */
+    @Override
+    public void close() {
+        shutdown = true;
+        for (Worker worker : workers) LockSupport.unpark(worker);
+        if (currentWorker() != null) return;
+        boolean interrupted = false;
+        for (Worker worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * @return The worker of this pool running the current thread, or {@code null} if it isn't one
+     */
+    private @Nullable Worker currentWorker() {
+        return Thread.currentThread() instanceof Worker worker && worker.pool == this ? worker : null;
+    }
+
+    private void signalWork() {
+        if (idleWorkers.get() == 0) return;
+        for (Worker worker : workers) {
+            if (worker.idle) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds a task for the worker: its own newest task, then a submitted task, then the oldest task of another worker
+     * @return The task to run, or {@code null} if there is none
+     */
+    private @Nullable Task<?> findTask(@NotNull Worker worker) {
+        Task<?> task = worker.deque.pop();
+        if (task != null) return task;
+        task = submissions.poll();
+        if (task != null) return task;
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker victim = workers[(start + i) % workers.length];
+            if (victim == worker) continue;
+            task = victim.deque.steal();
+            if (task != null) return task;
+        }
+        return null;
+    }
+
+    private void runWorker(@NotNull Worker worker) {
+        int spins = 0;
+        while (true) {
+            Task<?> task = findTask(worker);
+            if (task != null) {
+                spins = 0;
+                task.run();
+                continue;
+            }
+            if (shutdown && submissions.isEmpty()) return;
+            if (++spins < IDLE_SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // The parking is bounded, so a signal missed while going idle only delays the worker
+            worker.idle = true;
+            idleWorkers.incrementAndGet();
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            idleWorkers.decrementAndGet();
+            worker.idle = false;
+            spins = 0;
+        }
+    }
+
+    /**
+     * <p>
+     *     A piece of work that can be run in a {@link WorkStealingPool}, and that can split itself into sub-tasks
+     * </p>
+     * <p>
+     *     Inside {@link Task#compute()}, sub-tasks are scheduled with {@link Task#fork()} and their results are
+     *     awaited with {@link Task#join()}
+     * </p>
+     * @param <R> The type of the result of the task
+     */
+    public abstract static class Task<R> {
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int FAILED = 3;
+
+        private final AtomicInteger status = new AtomicInteger(NEW);
+        private R result;
+        private Throwable exception;
+        private volatile boolean externalWaiters;
+
+        /**
+         * Computes the result of the task
+         * @return The result of the task
+         */
+        protected abstract R compute();
+
+        /**
+         * Schedules the task to run in the pool of the current worker thread
+         * @return This task, to join it later
+         * @throws IllegalStateException If the current thread isn't a worker of a {@link WorkStealingPool}
+         */
+        public final @NotNull Task<R> fork() {
+            if (!(Thread.currentThread() instanceof Worker worker)) throw new IllegalStateException(
+                    "Can only fork a task from a worker thread!"
+            );
+            worker.deque.push(this);
+            worker.pool.signalWork();
+            return this;
+        }
+
+        /**
+         * <p>
+         *     Waits for the task to finish and returns its result
+         * </p>
+         * <p>
+         *     On a worker thread, other tasks are run while waiting, starting with the ones forked by this worker
+         * </p>
+         * @return The result of the task
+         * @throws CompletionException If the task threw an exception
+         */
+        public final R join() {
+            if (!isDone()) {
+                if (Thread.currentThread() instanceof Worker worker) helpUntilDone(worker);
+                else awaitDone();
+            }
+            if (status.get() == FAILED) {
+                if (exception instanceof RuntimeException runtimeException) throw runtimeException;
+                if (exception instanceof Error error) throw error;
+                throw new CompletionException(exception);
+            }
+            return result;
+        }
+
+        /**
+         * @return {@code true} if the task has finished running, {@code false} otherwise
+         */
+        public final boolean isDone() {return status.get() >= DONE;}
+
+        /**
+         * Runs the task in the current thread, unless it is already running or finished
+         */
+        final void run() {
+            if (!status.compareAndSet(NEW, RUNNING)) return;
+            try {
+                result = compute();
+                status.set(DONE);
+            } catch (Throwable t) {
+                exception = t;
+                status.set(FAILED);
+            }
+            if (externalWaiters) {
+                synchronized (this) {notifyAll();}
+            }
+        }
+
+        private void helpUntilDone(@NotNull Worker worker) {
+            int spins = 0;
+            while (!isDone()) {
+                Task<?> task = worker.pool.findTask(worker);
+                if (task != null) {
+                    task.run();
+                    spins = 0;
+                }
+                else if (++spins < IDLE_SPINS) Thread.onSpinWait();
+                else Thread.yield();
+            }
+        }
+
+        private synchronized void awaitDone() {
+            externalWaiters = true;
+            boolean interrupted = false;
+            while (!isDone()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Worker extends Thread {
+        private final WorkStealingPool pool;
+        private final WorkStealingDeque<Task<?>> deque = new WorkStealingDeque<>();
+        private volatile boolean idle;
+
+        private Worker(@NotNull WorkStealingPool pool, int index) {
+            super("work-stealing-worker-" + index);
+            this.pool = pool;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {pool.runWorker(this);}
+    }
+}
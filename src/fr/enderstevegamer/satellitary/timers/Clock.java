@@ -1,26 +1,49 @@
 package fr.enderstevegamer.satellitary.timers;
 
+/**
+ * A {@link Timer} measuring the real time elapsed, like a stopwatch
+ */
 public class Clock implements Timer {
-    private double startTime;
+    private long startTime;
+    private long elapsedTime;
     private boolean isStarted;
 
+    /**
+     * Creates a {@link Clock} with no elapsed time
+     * @param startImmediately {@code true} to start the {@link Clock} right away, {@code false} otherwise
+     */
     public Clock(boolean startImmediately) {
-        this.startTime = System.currentTimeMillis();
+        this.startTime = System.nanoTime();
+        this.elapsedTime = 0;
         this.isStarted = startImmediately;
     }
 
     @Override
     public void start() {
-
+        if (this.isStarted) return;
+        this.startTime = System.nanoTime();
+        this.isStarted = true;
     }
 
     @Override
     public void stop() {
-
+        if (!this.isStarted) return;
+        this.elapsedTime += System.nanoTime() - this.startTime;
+        this.isStarted = false;
     }
 
     @Override
     public void reset() {
+        this.elapsedTime = 0;
         this.isStarted = false;
     }
+
+    @Override
+    public boolean isStarted() {return this.isStarted;}
+
+    @Override
+    public double getElapsedTime() {
+        long elapsed = this.isStarted ? this.elapsedTime + System.nanoTime() - this.startTime : this.elapsedTime;
+        return elapsed / 1e9;
+    }
 }
@@ -1,7 +1,31 @@
 package fr.enderstevegamer.satellitary.timers;
 
+/**
+ * An object measuring the time elapsed while it is started
+ */
 public interface Timer {
+    /**
+     * Starts measuring the time, or does nothing if the {@link Timer} is already started
+     */
     void start();
+
+    /**
+     * Stops measuring the time, keeping the time elapsed so far
+     */
     void stop();
+
+    /**
+     * Stops the {@link Timer} and sets its elapsed time back to 0
+     */
     void reset();
+
+    /**
+     * @return {@code true} if the {@link Timer} is measuring the time, {@code false} otherwise
+     */
+    boolean isStarted();
+
+    /**
+     * @return The time elapsed while the {@link Timer} was started, in seconds
+     */
+    double getElapsedTime();
 }